@@ -0,0 +1,51 @@
+package textverarbeitung.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+import textverarbeitung.EditorManager;
+
+/**
+ * Measures structural edits at the front and in the middle of a document with the size of a
+ * {@link SyntheticDocument}. Every invocation adds a paragraph and removes it again, so the size stays constant.
+ * It also measures searching and replacing in all paragraphs, where the replacement toggles between both directions.
+ */
+public class EditorManagerBenchmark extends BenchmarkSettings {
+
+    private final EditorManager editorManager = new EditorManager();
+    private boolean replaceForward = true;
+
+    @Setup
+    public void setup(final SyntheticDocument document) {
+        for (final String text : document.texts) {
+            editorManager.addParagraph(text, null);
+        }
+    }
+
+    @Benchmark
+    public String addAndDeleteFirstParagraph(final SyntheticDocument document) {
+        editorManager.addParagraph(document.texts.get(0), 1);
+        return editorManager.deleteParagraph(1);
+    }
+
+    @Benchmark
+    public String addAndDeleteMiddleParagraph(final SyntheticDocument document) {
+        final int middle = editorManager.getParagraphSize() / 2 + 1;
+        editorManager.addParagraph(document.texts.get(0), middle);
+        return editorManager.deleteParagraph(middle);
+    }
+
+    @Benchmark
+    public String search() {
+        return editorManager.search("Nostrud exercitation");
+    }
+
+    @Benchmark
+    public String replaceAll() {
+        final String result = replaceForward
+                ? editorManager.replaceAll("Labore", "Laborum")
+                : editorManager.replaceAll("Laborum", "Labore");
+        replaceForward = !replaceForward;
+        return result;
+    }
+
+}
@@ -0,0 +1,46 @@
+package textverarbeitung.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+import textverarbeitung.FormatManager;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Measures the PRINT command in the raw format and in the FORMAT FIX format, both building the whole output as a
+ * {@link String} and streaming it to a {@link Writer} which discards it.
+ */
+public class FormatManagerBenchmark extends BenchmarkSettings {
+
+    private static final int FIXED_COLUMN_WIDTH = 40;
+
+    private final FormatManager rawFormatManager = new FormatManager();
+    private final FormatManager fixedFormatManager = new FormatManager();
+
+    @Setup
+    public void setup() {
+        fixedFormatManager.setSelectedFormat(FIXED_COLUMN_WIDTH);
+    }
+
+    @Benchmark
+    public String transformToRawFormat(final SyntheticDocument document) {
+        return rawFormatManager.transformParagraphsToSelectedFormat(document.paragraphs);
+    }
+
+    @Benchmark
+    public String transformToFixedFormat(final SyntheticDocument document) {
+        return fixedFormatManager.transformParagraphsToSelectedFormat(document.paragraphs);
+    }
+
+    @Benchmark
+    public void writeRawFormat(final SyntheticDocument document) throws IOException {
+        rawFormatManager.writeParagraphsInSelectedFormat(document.paragraphs, Writer.nullWriter());
+    }
+
+    @Benchmark
+    public void writeFixedFormat(final SyntheticDocument document) throws IOException {
+        fixedFormatManager.writeParagraphsInSelectedFormat(document.paragraphs, Writer.nullWriter());
+    }
+
+}
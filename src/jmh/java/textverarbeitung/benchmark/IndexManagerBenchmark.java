@@ -0,0 +1,36 @@
+package textverarbeitung.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+import textverarbeitung.IndexManager;
+import textverarbeitung.Paragraph;
+
+/**
+ * Measures the INDEX command: rebuilding the indices of a {@link SyntheticDocument} from scratch, reading them from
+ * the incrementally maintained inverted index, and rendering them.
+ */
+public class IndexManagerBenchmark extends BenchmarkSettings {
+
+    private final IndexManager indexManager = new IndexManager();
+    private final IndexManager maintainedIndexManager = new IndexManager();
+
+    @Setup
+    public void setup(final SyntheticDocument document) {
+        for (final Paragraph paragraph : document.paragraphs) {
+            maintainedIndexManager.addParagraph(paragraph);
+        }
+    }
+
+    @Benchmark
+    public String calculateAndTransformIndices(final SyntheticDocument document) {
+        indexManager.calculateIndices(document.paragraphs);
+        return indexManager.transformIndicesToPrintFormat();
+    }
+
+    @Benchmark
+    public String updateAndTransformIndices(final SyntheticDocument document) {
+        maintainedIndexManager.updateIndices(document.paragraphs);
+        return maintainedIndexManager.transformIndicesToPrintFormat();
+    }
+
+}
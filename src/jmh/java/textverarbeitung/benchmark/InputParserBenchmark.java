@@ -0,0 +1,42 @@
+package textverarbeitung.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import textverarbeitung.InputParser;
+
+/**
+ * Measures the command lookup of {@link InputParser} over a synthetic script of {@code lineCount} input lines.
+ */
+@State(Scope.Benchmark)
+public class InputParserBenchmark extends BenchmarkSettings {
+
+    private static final String[] COMMAND_LINES = {
+            "ADD", "add 3", "DEL 1", "dummy", "FORMAT FIX 40", "format raw", "INDEX", "print", "REPLACE 2", "unknown input"
+    };
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int lineCount;
+
+    private final InputParser inputParser = new InputParser();
+    private String[][] splitLines;
+
+    @Setup
+    public void setup() {
+        splitLines = new String[lineCount][];
+        for (int i = 0; i < lineCount; i++) {
+            splitLines[i] = inputParser.splitUserInput(COMMAND_LINES[i % COMMAND_LINES.length]);
+        }
+    }
+
+    @Benchmark
+    public void getMatchingCommand(final Blackhole blackhole) {
+        for (final String[] splitLine : splitLines) {
+            blackhole.consume(inputParser.getMatchingCommand(splitLine));
+        }
+    }
+
+}
@@ -0,0 +1,45 @@
+package textverarbeitung.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+import textverarbeitung.EditorManager;
+import textverarbeitung.Paragraph;
+
+/**
+ * Measures the construction of {@link Paragraph}s (sanitizing and word frequency calculation) and the
+ * search / replace path, each applied to every paragraph of a {@link SyntheticDocument}. A replacement goes through
+ * the {@link EditorManager} like in production, which exchanges the paragraph with a changed copy.
+ */
+public class ParagraphBenchmark extends BenchmarkSettings {
+
+    private final EditorManager editorManager = new EditorManager();
+    private boolean replaceForward = true;
+
+    @Setup
+    public void setup(final SyntheticDocument document) {
+        for (final String text : document.texts) {
+            editorManager.addParagraph(text, null);
+        }
+    }
+
+    @Benchmark
+    public void construct(final SyntheticDocument document, final Blackhole blackhole) {
+        for (final String text : document.texts) {
+            blackhole.consume(new Paragraph(text).getParagraphWordFrequencies());
+        }
+    }
+
+    @Benchmark
+    public void searchReplace(final Blackhole blackhole) {
+        // Toggles between both directions so the document does not drift from one invocation to the next
+        final String toSearch = replaceForward ? "Lorem" : "Lorum";
+        final String toReplaceWith = replaceForward ? "Lorum" : "Lorem";
+        final int paragraphCount = editorManager.getParagraphSize();
+        for (int position = 1; position <= paragraphCount; position++) {
+            blackhole.consume(editorManager.replace(position, toSearch, toReplaceWith));
+        }
+        replaceForward = !replaceForward;
+    }
+
+}
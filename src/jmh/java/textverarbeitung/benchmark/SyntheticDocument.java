@@ -0,0 +1,66 @@
+package textverarbeitung.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import textverarbeitung.Paragraph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static textverarbeitung.TextConstants.WHITESPACE;
+
+/**
+ * Benchmark state holding a synthetic document of {@code paragraphCount} {@link Paragraph}s.
+ * The texts are generated from a fixed seed, so every run and every fork measures the same document.
+ */
+@State(Scope.Benchmark)
+public class SyntheticDocument {
+
+    private static final long SEED = 42L;
+    private static final int WORDS_PER_PARAGRAPH = 14;
+    private static final String[] VOCABULARY = {
+            "Lorem", "ipsum", "Dolor", "sit", "amet,", "Consectetur", "adipiscing", "elit.", "Sed", "do",
+            "eiusmod", "Tempor", "incididunt", "ut", "Labore", "et", "dolore", "Magna", "aliqua.", "Ut",
+            "enim", "ad", "Minim", "veniam,", "quis", "Nostrud", "exercitation", "(ullamco)", "laboris", "Nisi",
+            "Übung", "größer", "Straße", "-Äpfel", "Öl!", "100%", "user@mail", "[Zitat]", "A/B", "Nr.#7"
+    };
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int paragraphCount;
+
+    public List<String> texts;
+    public List<Paragraph> paragraphs;
+
+    @Setup
+    public void setup() {
+        texts = generateTexts(paragraphCount);
+        paragraphs = new ArrayList<>(paragraphCount);
+        for (final String text : texts) {
+            paragraphs.add(new Paragraph(text));
+        }
+    }
+
+    /**
+     * Generates the raw texts of a synthetic document.
+     *
+     * @param count the number of paragraph texts to generate
+     * @return the generated texts in document order
+     */
+    public static List<String> generateTexts(final int count) {
+        final Random random = new Random(SEED);
+        final List<String> generatedTexts = new ArrayList<>(count);
+        final StringBuilder stringBuilder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            stringBuilder.setLength(0);
+            for (int j = 0; j < WORDS_PER_PARAGRAPH; j++) {
+                stringBuilder.append(VOCABULARY[random.nextInt(VOCABULARY.length)]).append(WHITESPACE);
+            }
+            generatedTexts.add(stringBuilder.toString());
+        }
+        return generatedTexts;
+    }
+
+}
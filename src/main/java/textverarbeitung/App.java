@@ -1,18 +1,71 @@
 package textverarbeitung;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
 /**
  * App class to start the {@link Editor}.
  * It contains the main method to run the program.
  */
 public class App {
 
+    private static final String BATCH_OPTION = "--batch";
+    private static final String WAL_OPTION = "--wal";
+    private static final String SERVER_OPTION = "--server";
+
     /**
      * Main method to create and run the Textverarbeitung editor.
+     * Without arguments the editor runs interactively. With {@code --batch [script]} it executes the commands of the
+     * given script file, or of the standard input if no file is given, in batch mode.
+     * Both can be preceded by {@code --wal directory} to recover the previous session from the write-ahead log in the
+     * given directory and to log the changes of this session to it.
+     * With {@code --server port} it serves sessions over TCP connections to the given port of the loopback interface
+     * instead.
      *
-     * @param args no arguments are expected / handled.
+     * @param args optionally {@code --wal} followed by a directory, then either nothing or {@code --batch} optionally
+     *             followed by the path of a script file; or {@code --server} followed by a port.
      */
     public static void main(String[] args) {
-        new Editor().run();
+        WriteAheadLog writeAheadLog = null;
+        if (args.length >= 2 && WAL_OPTION.equals(args[0])) {
+            writeAheadLog = new WriteAheadLog(Path.of(args[1]), new PersistenceManager());
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+
+        if (args.length == 0) {
+            new Editor(new Console(OutputMode.INTERACTIVE), writeAheadLog).run();
+        } else if (BATCH_OPTION.equals(args[0]) && args.length == 1) {
+            new Editor(new Console(System.in, OutputMode.BATCH), writeAheadLog).runBatch();
+        } else if (BATCH_OPTION.equals(args[0]) && args.length == 2) {
+            runBatchScript(Path.of(args[1]), writeAheadLog);
+        } else if (SERVER_OPTION.equals(args[0]) && args.length == 2 && writeAheadLog == null) {
+            runServer(args[1]);
+        } else {
+            new Console().printError("Usage: App [" + WAL_OPTION + " directory] [" + BATCH_OPTION + " [script]] | "
+                    + SERVER_OPTION + " port");
+        }
+    }
+
+    private static void runServer(final String port) {
+        try (EditorServer server = new EditorServer(Integer.parseInt(port))) {
+            new Console().printLine("Serving editor sessions on port " + server.getPort() + ".");
+            server.serve();
+        } catch (NumberFormatException e) {
+            new Console().printError("Given port '" + port + "' is invalid.");
+        } catch (IOException e) {
+            new Console().printError("Port " + port + " could not be bound: " + e.getMessage());
+        }
+    }
+
+    private static void runBatchScript(final Path script, final WriteAheadLog writeAheadLog) {
+        try (InputStream input = Files.newInputStream(script)) {
+            new Editor(new Console(input, OutputMode.BATCH), writeAheadLog).runBatch();
+        } catch (IOException e) {
+            new Console().printError("Script '" + script + "' could not be read: " + e.getMessage());
+        }
     }
 
 }
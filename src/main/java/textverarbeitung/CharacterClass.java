@@ -0,0 +1,94 @@
+package textverarbeitung;
+
+import static textverarbeitung.TextConstants.BLANK;
+
+/**
+ * Classifies the characters of a {@link Paragraph} with a single lookup table which is built once.
+ * It replaces the regular expressions which were previously compiled for every paragraph and every word.
+ * <p>
+ * Allowed are the letters A-Z, a-z, the umlauts ä, ö, ü, Ä, Ö, Ü, the digits 0-9 and the special characters
+ * {@code .,:;-!?’ ()"%@+*[]{}/\&#$}. Special characters separate and surround words but are never part of one.
+ */
+final class CharacterClass {
+
+    private static final char RIGHT_SINGLE_QUOTATION_MARK = '’';
+    private static final String SPECIAL_CHARACTERS = ".,:;-!?’ ()\"%@+*[]{}/\\&#$";
+    private static final String WORD_CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789"
+            + "äöüÄÖÜ";
+
+    private static final byte DISALLOWED = 0;
+    private static final byte WORD = 1;
+    private static final byte SPECIAL = 2;
+    private static final byte[] LATIN_1_TABLE = new byte[256];
+
+    static {
+        for (int i = 0; i < WORD_CHARACTERS.length(); i++) {
+            LATIN_1_TABLE[WORD_CHARACTERS.charAt(i)] = WORD;
+        }
+        for (int i = 0; i < SPECIAL_CHARACTERS.length(); i++) {
+            final char character = SPECIAL_CHARACTERS.charAt(i);
+            if (character < LATIN_1_TABLE.length) {
+                LATIN_1_TABLE[character] = SPECIAL;
+            }
+        }
+    }
+
+    private CharacterClass() {
+        // No instantiation possible for this class
+    }
+
+    /**
+     * Checks if the given character may be part of a {@link Paragraph} content at all.
+     *
+     * @param character the character to check
+     * @return {@code true} if the character is a word or a special character
+     */
+    static boolean isAllowed(final char character) {
+        return classify(character) != DISALLOWED;
+    }
+
+    /**
+     * Checks if the given character is one of the allowed special characters, including the whitespace.
+     *
+     * @param character the character to check
+     * @return {@code true} if the character is a special character
+     */
+    static boolean isSpecial(final char character) {
+        return classify(character) == SPECIAL;
+    }
+
+    /**
+     * Removes all characters which are not allowed from the given text in a single pass.
+     * If the text consists of allowed characters only, the same instance is returned without any copy.
+     *
+     * @param text the text to sanitize
+     * @return the text without any disallowed characters
+     */
+    static String sanitize(final String text) {
+        final int length = text.length();
+        int i = 0;
+        while (i < length && isAllowed(text.charAt(i))) {
+            i++;
+        }
+        if (i == length) {
+            return text;
+        }
+
+        final StringBuilder stringBuilder = new StringBuilder(length - 1).append(text, 0, i);
+        for (i++; i < length; i++) {
+            final char character = text.charAt(i);
+            if (isAllowed(character)) {
+                stringBuilder.append(character);
+            }
+        }
+        return stringBuilder.length() == 0 ? BLANK : stringBuilder.toString();
+    }
+
+    private static byte classify(final char character) {
+        if (character < LATIN_1_TABLE.length) {
+            return LATIN_1_TABLE[character];
+        }
+        return character == RIGHT_SINGLE_QUOTATION_MARK ? SPECIAL : DISALLOWED;
+    }
+
+}
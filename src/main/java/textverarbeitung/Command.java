@@ -1,7 +1,5 @@
 package textverarbeitung;
 
-import java.util.EnumSet;
-
 import static java.lang.String.format;
 import static java.lang.System.lineSeparator;
 import static textverarbeitung.TextConstants.AS_BOLD;
@@ -48,14 +46,50 @@ public enum Command {
      * Uses {@link IndexManager} to calculate word frequency in {@link Paragraph}s and prints out frequent words.
      */
     INDEX("INDEX", "Indexes word frequency in paragraphs and prints out frequent words."),
+    /**
+     * Uses {@link PersistenceManager} to load the {@link Paragraph}s of a file, replacing the current ones.
+     */
+    LOAD("LOAD", "Loads the paragraphs of a file (one per line), replacing the current paragraphs."),
+    /**
+     * Opens the {@link Document} with the name n, which is shared with all other sessions opening it.
+     */
+    OPEN("OPEN", "Opens the document named n, which is shared with all other sessions opening it.", 1, true),
     /**
      * Prints out all {@link Paragraph}s in the current {@link Format}.
      */
     PRINT("PRINT", "Prints out all Paragraphs in the current format."),
+    /**
+     * Redoes the last undone change of the {@link Paragraph}s.
+     */
+    REDO("REDO", "Redoes the last undone change of the paragraphs."),
+    /**
+     * Replaces the matches of a regular expression in {@link Paragraph} n.
+     */
+    REGEX_REPLACE("REGEX REPLACE", "Replaces the matches of a regular expression in paragraph n or in the last paragraph if no parameter given.", 1, false),
+    /**
+     * Replaces the matches of a regular expression in all {@link Paragraph}s at once.
+     */
+    REGEX_REPLACE_ALL("REGEX REPLACE ALL", "Replaces the matches of a regular expression in all paragraphs at once."),
     /**
      * Replaces a sequence of characters in {@link Paragraph} n.
      */
     REPLACE("REPLACE", "Replaces a sequence of characters in paragraph n or in the last paragraph if no parameter given.", 1, false),
+    /**
+     * Replaces a sequence of characters in all {@link Paragraph}s at once.
+     */
+    REPLACE_ALL("REPLACE ALL", "Replaces a sequence of characters in all paragraphs at once."),
+    /**
+     * Uses {@link PersistenceManager} to save all {@link Paragraph}s to a file.
+     */
+    SAVE("SAVE", "Saves all paragraphs to a file (one per line)."),
+    /**
+     * Finds all occurrences of a text in all {@link Paragraph}s.
+     */
+    SEARCH("SEARCH", "Searches all paragraphs for a text and prints where it occurs."),
+    /**
+     * Undoes the last change of the {@link Paragraph}s.
+     */
+    UNDO("UNDO", "Undoes the last change of the paragraphs."),
     /**
      * Used if the user input does not match any command's identifier
      */
@@ -67,6 +101,7 @@ public enum Command {
     private final String helpText;
     private final Integer numberOfParameters;
     private final boolean parameterRequired;
+    private final int numberOfIdentifierWords;
 
     /**
      * Creates a new {@link Command} {@link Enum} constant.
@@ -83,6 +118,7 @@ public enum Command {
         this.helpText = helpText;
         this.numberOfParameters = numberOfParameters;
         this.parameterRequired = parameterRequired;
+        numberOfIdentifierWords = identifier == null ? 0 : identifier.split(WHITESPACE).length;
     }
 
     /**
@@ -121,46 +157,80 @@ public enum Command {
     }
 
     /**
-     * Gets identifier of {@link Command}, splits it and returns the length.
+     * Returns the number of texts the {@link Command} reads after its input line, which can also be given inline.
+     *
+     * @return number of payloads of the {@link Command} (i.e. 2 for the search- and replace-text of 'replace')
+     */
+    public int getNumberOfPayloads() {
+        return switch (this) {
+            case ADD, LOAD, SAVE, SEARCH -> 1;
+            case REGEX_REPLACE, REGEX_REPLACE_ALL, REPLACE, REPLACE_ALL -> 2;
+            default -> 0;
+        };
+    }
+
+    /**
+     * Returns the number of words of the identifier of the {@link Command}, which is counted once upon creation.
      *
      * @return number of words a given {@link Command} contains. (i.e. 2 for 'format fix')
      */
     public int getNumberOfIdentifierWords() {
-        return this.getIdentifier() == null
-                ? 0
-                : this.getIdentifier().split(WHITESPACE).length;
+        return numberOfIdentifierWords;
     }
 
     /**
-     * Builds a {@link StringBuilder} Object with all Commands and their respective values.
-     * This text is used for the Help {@link Command} and an information on how to use the Text-Editor
+     * Returns the text with all Commands and their respective values, formatted with ANSI bold and italic codes.
+     * This text is used for the Help {@link Command} and an information on how to use the Text-Editor.
+     * It is built once upon first use.
      *
      * @return Text with all {@link Command}s as {@link String}
      */
     public static String getAllHelpTexts() {
+        return HelpTexts.FORMATTED;
+    }
+
+    /**
+     * Returns the text with all Commands and their respective values without any ANSI codes, for output which is not
+     * shown on a terminal. It is built once upon first use.
+     *
+     * @return Text with all {@link Command}s as {@link String}
+     */
+    public static String getAllPlainHelpTexts() {
+        return HelpTexts.PLAIN;
+    }
+
+    /**
+     * Builds a {@link StringBuilder} Object with all Commands and their respective values.
+     *
+     * @param formatted whether the commands and parameters are formatted with ANSI codes
+     * @return Text with all {@link Command}s as {@link String}
+     */
+    private static String buildAllHelpTexts(final boolean formatted) {
         final StringBuilder stringBuilder = new StringBuilder();
         int longestCommandIdentifierLength = 0;
 
-        for (final Command command : EnumSet.allOf(Command.class)) {
+        for (final Command command : values()) {
             if (command.getIdentifier() != null
                     && command.getIdentifier().length() > longestCommandIdentifierLength) {
                 longestCommandIdentifierLength = command.getIdentifier().length();
             }
         }
 
-        for (Command command : EnumSet.allOf(Command.class)) {
+        for (Command command : values()) {
             if (command.getHelpText() != null) {
                 final String parameter = command.getNumberOfParameters() == 0 ? BLANK : " [n]";
                 stringBuilder.append(TAB)
-                        .append(format(AS_BOLD, command.getIdentifier()))
-                        .append(format(AS_BOLD, format(AS_ITALIC, parameter)))
+                        .append(formatted ? format(AS_BOLD, command.getIdentifier()) : command.getIdentifier())
+                        .append(formatted ? format(AS_BOLD, format(AS_ITALIC, parameter)) : parameter)
                         .append(WHITESPACE.repeat((longestCommandIdentifierLength + MIN_WHITESPACES_BETWEEN_COMMAND_AND_HELP_TEXT)
                                 - (command.getIdentifier().length()) - parameter.length()))
                         .append(command.getHelpText());
                 if (command.getNumberOfParameters() > 0) {
-                    stringBuilder.append(command.isParameterRequired()
-                            ? WHITESPACE + format(AS_ITALIC, "(Parameter is mandatory)")
-                            : WHITESPACE + format(AS_ITALIC, "(Parameter can be omitted)"));
+                    final String parameterHint = command.isParameterRequired()
+                            ? "(Parameter is mandatory)"
+                            : "(Parameter can be omitted)";
+                    stringBuilder.append(WHITESPACE)
+                            .append(formatted ? format(AS_ITALIC, parameterHint) : parameterHint);
                 }
                 stringBuilder.append(lineSeparator());
             }
@@ -168,4 +238,14 @@ public enum Command {
         return stringBuilder.toString();
     }
 
-}
\ No newline at end of file
+    /**
+     * Holds the help texts, which are built when this class is initialized upon the first access.
+     */
+    private static final class HelpTexts {
+
+        private static final String FORMATTED = buildAllHelpTexts(true);
+        private static final String PLAIN = buildAllHelpTexts(false);
+
+    }
+
+}
@@ -1,23 +1,91 @@
 package textverarbeitung;
 
-import java.util.Scanner;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.function.Supplier;
 
 import static java.lang.System.lineSeparator;
-import static textverarbeitung.TextConstants.AS_RED;
+import static textverarbeitung.TextConstants.END_FORMATTING;
+import static textverarbeitung.TextConstants.START_RED;
 
 /**
  * Console class to handle console inputs and outputs.
+ * <p>
+ * All output goes through one reusable {@link OutputBuffer}. When it is written out is determined by the
+ * {@link OutputMode}: after every print, before the next line is read, or only when the buffer is full and when it is
+ * flushed explicitly. Buffering avoids a system call per printed line when the output is piped.
+ * <p>
+ * Only output to the terminal of an interactive session is formatted with ANSI codes. Output in the
+ * {@link OutputMode#BATCH} mode and output to a connection is written plain, as it is not meant for a terminal.
  */
 public class Console {
 
-    private final Scanner scanner;
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+    private final BufferedReader reader;
+    private final OutputBuffer outputBuffer;
+    private final OutputMode outputMode;
+    private final boolean terminal;
 
     /**
-     * Creates a new Console.
-     * It initializes the scanner which is used to read the console input.
+     * Creates a new unbuffered Console reading from {@link System#in}.
      */
     public Console() {
-        scanner = new Scanner(System.in);
+        this(OutputMode.UNBUFFERED);
+    }
+
+    /**
+     * Creates a new Console reading from {@link System#in}.
+     *
+     * @param outputMode the {@link OutputMode} determining when the output is written out
+     */
+    public Console(final OutputMode outputMode) {
+        this(System.in, outputMode);
+    }
+
+    /**
+     * Creates a new Console.
+     * It initializes the reader which is used to read the console input and the buffer for the console output.
+     *
+     * @param input      the {@link InputStream} to read the input lines from
+     * @param outputMode the {@link OutputMode} determining when the output is written out
+     */
+    public Console(final InputStream input, final OutputMode outputMode) {
+        this(input, () -> System.out, outputMode, outputMode != OutputMode.BATCH);
+    }
+
+    /**
+     * Creates a new Console reading from and writing to the given streams, i.e. those of a connection to a client.
+     *
+     * @param input      the {@link InputStream} to read the input lines from
+     * @param output     the {@link OutputStream} to write the output to
+     * @param outputMode the {@link OutputMode} determining when the output is written out
+     */
+    public Console(final InputStream input, final OutputStream output, final OutputMode outputMode) {
+        this(input, () -> output, outputMode, false);
+    }
+
+    private Console(final InputStream input, final Supplier<? extends OutputStream> output,
+                    final OutputMode outputMode, final boolean terminal) {
+        reader = new BufferedReader(new InputStreamReader(input, Charset.defaultCharset()));
+        outputBuffer = new OutputBuffer(output, OUTPUT_BUFFER_SIZE, Charset.defaultCharset());
+        this.outputMode = outputMode;
+        this.terminal = terminal;
+    }
+
+    /**
+     * Returns whether the output goes to a terminal, so it may be formatted with ANSI codes.
+     *
+     * @return true if the output is written to {@link System#out} in an interactive mode, false in the
+     * {@link OutputMode#BATCH} mode and for a connection
+     */
+    public boolean isTerminal() {
+        return terminal;
     }
 
     /**
@@ -26,14 +94,33 @@ public class Console {
      * @param message the message to print
      */
     public void printLine(final String message) {
-        System.out.println(message);
+        write(String.valueOf(message));
+        write(lineSeparator());
+        flushIfUnbuffered();
+    }
+
+    /**
+     * Streams the output of the given {@link OutputRenderer} to the console and inserts a line break afterwards.
+     * The output passes through the buffer of a fixed size, so it is never held in memory as a whole.
+     *
+     * @param renderer the renderer writing the output
+     */
+    public void printLine(final OutputRenderer renderer) {
+        try {
+            renderer.render(outputBuffer);
+            outputBuffer.write(lineSeparator());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        flushIfUnbuffered();
     }
 
     /**
      * Prints an empty line to the console.
      */
     public void printEmptyLine() {
-        System.out.println();
+        write(lineSeparator());
+        flushIfUnbuffered();
     }
 
     /**
@@ -42,25 +129,69 @@ public class Console {
      * @param message the message to print
      */
     public void print(final String message) {
-        System.out.print(message);
+        write(String.valueOf(message));
+        flushIfUnbuffered();
     }
 
     /**
-     * Prints the given error message to the console.
+     * Prints the given error message to the console, in red if the output goes to a terminal.
+     * The message is wrapped into the color codes directly instead of passing it through a format string.
      *
      * @param message the message text to print
      */
     public void printError(final String message) {
-        System.out.printf(AS_RED + lineSeparator(), message);
+        if (terminal) {
+            write(START_RED);
+        }
+        write(String.valueOf(message));
+        if (terminal) {
+            write(END_FORMATTING);
+        }
+        write(lineSeparator());
+        flushIfUnbuffered();
     }
 
     /**
      * Reads a line from the console.
+     * In the {@link OutputMode#INTERACTIVE} mode any buffered output is written out first, so a prompt is visible
+     * before the input is awaited.
      *
-     * @return the line that was read from the console
+     * @return the line that was read from the console or {@code null} if the end of the input has been reached
      */
     public String readLine() {
-        return scanner.nextLine();
+        if (outputMode == OutputMode.INTERACTIVE) {
+            flush();
+        }
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes out all buffered output.
+     */
+    public void flush() {
+        try {
+            outputBuffer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(final String text) {
+        try {
+            outputBuffer.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flushIfUnbuffered() {
+        if (outputMode == OutputMode.UNBUFFERED) {
+            flush();
+        }
     }
 
-}
\ No newline at end of file
+}
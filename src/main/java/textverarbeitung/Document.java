@@ -0,0 +1,136 @@
+package textverarbeitung;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Document Class holding the {@link Paragraph}s edited by one or more sessions, together with their index.
+ * <p>
+ * Sessions sharing a document coordinate through its locks, which are only held for the execution of a command
+ * itself, never while a session waits for the input of its user:
+ * <ul>
+ *     <li>The structure lock is held exclusively by changes of the number or order of the paragraphs (i.e. ADD, DEL,
+ *     UNDO) and shared by all other commands, so the paragraph positions they have validated stay valid.</li>
+ *     <li>A replacement additionally holds the lock of its paragraph, one of a fixed number of stripes picked by the
+ *     position. Replacements of different paragraphs therefore run in parallel.</li>
+ * </ul>
+ * Readers like PRINT and INDEX do not take any of these locks: PRINT works on a snapshot of the paragraphs, which the
+ * {@link EditorManager} takes in O(1), and INDEX only looks up the positions of the paragraphs it lists under the
+ * internal lock of the EditorManager. Neither of them blocks a writer for longer than that.
+ * <p>
+ * The changes of a shared document are made by several sessions, so none of them could tell which change UNDO would
+ * revert. A shared document therefore keeps no changes to be undone.
+ */
+class Document {
+
+    private static final int PARAGRAPH_LOCK_STRIPES = 64;
+    private static final long SHARED_JOURNAL_CAPACITY_BYTES = 0;
+
+    private final String name;
+    private final EditorManager editorManager;
+    private final ReentrantReadWriteLock structureLock;
+    private final ReentrantLock[] paragraphLocks;
+
+    /**
+     * Creates a new empty Document.
+     *
+     * @param name the name the document is shared under, or null for a document of a single session
+     */
+    Document(final String name) {
+        this.name = name;
+        editorManager = name == null
+                ? new EditorManager(new IndexManager())
+                : new EditorManager(new IndexManager(), SHARED_JOURNAL_CAPACITY_BYTES);
+        structureLock = new ReentrantReadWriteLock();
+        paragraphLocks = new ReentrantLock[PARAGRAPH_LOCK_STRIPES];
+        for (int i = 0; i < paragraphLocks.length; i++) {
+            paragraphLocks[i] = new ReentrantLock();
+        }
+    }
+
+    String getName() {
+        return name;
+    }
+
+    boolean isShared() {
+        return name != null;
+    }
+
+    EditorManager getEditorManager() {
+        return editorManager;
+    }
+
+    /**
+     * Acquires the structure lock, waiting for any session holding it exclusively, or for all sessions holding it if
+     * it is acquired exclusively.
+     *
+     * @param exclusive whether the number or order of the paragraphs is going to be changed
+     */
+    void lockStructure(final boolean exclusive) {
+        if (exclusive) {
+            structureLock.writeLock().lock();
+        } else {
+            structureLock.readLock().lock();
+        }
+    }
+
+    void unlockStructure(final boolean exclusive) {
+        if (exclusive) {
+            structureLock.writeLock().unlock();
+        } else {
+            structureLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Executes the given action while sharing the structure lock, i.e. to read the paragraphs.
+     *
+     * @param action the action reading the paragraphs
+     * @param <T>    the type of the result of the action
+     * @return the result of the action
+     */
+    <T> T locked(final Supplier<T> action) {
+        return locked(false, action);
+    }
+
+    /**
+     * Executes the given action while holding the structure lock exclusively.
+     *
+     * @param action the action changing the number or order of the paragraphs
+     * @param <T>    the type of the result of the action
+     * @return the result of the action
+     */
+    <T> T lockedExclusively(final Supplier<T> action) {
+        return locked(true, action);
+    }
+
+    /**
+     * Executes the given action while holding the lock of the paragraph at the given position. The structure lock has
+     * to be held already, so the position stays valid.
+     *
+     * @param position the position of the paragraph to change
+     * @param action   the action changing the paragraph
+     * @param <T>      the type of the result of the action
+     * @return the result of the action
+     */
+    <T> T lockedParagraph(final int position, final Supplier<T> action) {
+        final ReentrantLock paragraphLock = paragraphLocks[Math.floorMod(position, PARAGRAPH_LOCK_STRIPES)];
+        paragraphLock.lock();
+        try {
+            return action.get();
+        } finally {
+            paragraphLock.unlock();
+        }
+    }
+
+    private <T> T locked(final boolean exclusive, final Supplier<T> action) {
+        lockStructure(exclusive);
+        try {
+            return action.get();
+        } finally {
+            unlockStructure(exclusive);
+        }
+    }
+
+}
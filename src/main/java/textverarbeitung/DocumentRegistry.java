@@ -0,0 +1,60 @@
+package textverarbeitung;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of the {@link Document}s shared by name between the sessions of one {@link Editor} or
+ * {@link EditorServer}. A document is created when it is opened for the first time and kept for as long as the
+ * registry exists. The number of documents is limited, so sessions opening ever new names cannot grow the heap
+ * without bounds.
+ */
+class DocumentRegistry {
+
+    private static final int DEFAULT_MAX_DOCUMENTS = 1_024;
+
+    private final ConcurrentMap<String, Document> documents = new ConcurrentHashMap<>();
+    private final int maxDocuments;
+
+    /**
+     * Creates a new DocumentRegistry holding up to 1'024 documents.
+     */
+    DocumentRegistry() {
+        this(DEFAULT_MAX_DOCUMENTS);
+    }
+
+    /**
+     * Creates a new DocumentRegistry.
+     *
+     * @param maxDocuments the maximum number of documents which can be created
+     */
+    DocumentRegistry(final int maxDocuments) {
+        this.maxDocuments = maxDocuments;
+    }
+
+    int getMaxDocuments() {
+        return maxDocuments;
+    }
+
+    /**
+     * Returns the document with the given name, which is created atomically if it does not exist yet and the maximum
+     * number of documents has not been reached.
+     *
+     * @param name the name of the document
+     * @return the document shared under the name, or null if it does not exist and no more documents can be created
+     */
+    Document open(final String name) {
+        final Document document = documents.get(name);
+        if (document != null) {
+            return document;
+        }
+        // Creating documents is serialized, so concurrent sessions cannot exceed the maximum together
+        synchronized (documents) {
+            if (documents.size() >= maxDocuments && !documents.containsKey(name)) {
+                return null;
+            }
+            return documents.computeIfAbsent(name, Document::new);
+        }
+    }
+
+}
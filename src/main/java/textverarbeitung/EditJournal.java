@@ -0,0 +1,277 @@
+package textverarbeitung;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Journal of the changes of the {@link Paragraph}s which can be undone and redone.
+ * <p>
+ * Every change is stored as a compact {@link Edit} from which it can be inverted: the position and the paragraph for
+ * an added or removed paragraph, and only the changed range for a replacement within a paragraph. A replacement in
+ * several paragraphs at once is stored as one edit of all of them, so it is undone and redone as a whole.
+ * The journal is a ring buffer bounded by an estimate of the memory its edits hold: once the cap is exceeded, the
+ * oldest edits are dropped and can no longer be undone. A new change discards all undone edits.
+ */
+class EditJournal {
+
+    private static final int EDIT_OVERHEAD_BYTES = 48;
+
+    private final Deque<Edit> undoableEdits = new ArrayDeque<>();
+    private final Deque<Edit> redoableEdits = new ArrayDeque<>();
+    private final long capacityBytes;
+    private long sizeBytes;
+
+    /**
+     * Creates a new empty EditJournal.
+     *
+     * @param capacityBytes the estimated number of bytes the edits of the journal may hold at most
+     */
+    EditJournal(final long capacityBytes) {
+        this.capacityBytes = capacityBytes;
+    }
+
+    /**
+     * Records a new change, which discards all undone edits. If the edit alone exceeds the capacity, the whole journal
+     * is cleared instead, since the changes before it could not be undone anyway.
+     *
+     * @param edit the change to record
+     */
+    void record(final Edit edit) {
+        redoableEdits.forEach(redoableEdit -> sizeBytes -= redoableEdit.getSizeBytes());
+        redoableEdits.clear();
+        if (edit.getSizeBytes() > capacityBytes) {
+            clear();
+            return;
+        }
+        undoableEdits.push(edit);
+        sizeBytes += edit.getSizeBytes();
+        while (sizeBytes > capacityBytes) {
+            sizeBytes -= undoableEdits.removeLast().getSizeBytes();
+        }
+    }
+
+    /**
+     * Takes the last change to undo it, which can be redone afterwards.
+     *
+     * @return the last change, or null if there is none
+     */
+    Edit undo() {
+        final Edit edit = undoableEdits.poll();
+        if (edit != null) {
+            redoableEdits.push(edit);
+        }
+        return edit;
+    }
+
+    /**
+     * Takes the last undone change to redo it, which can be undone again afterwards.
+     *
+     * @return the last undone change, or null if there is none
+     */
+    Edit redo() {
+        final Edit edit = redoableEdits.poll();
+        if (edit != null) {
+            undoableEdits.push(edit);
+        }
+        return edit;
+    }
+
+    /**
+     * Drops all edits, i.e. when all paragraphs have been replaced.
+     */
+    void clear() {
+        undoableEdits.clear();
+        redoableEdits.clear();
+        sizeBytes = 0;
+    }
+
+    long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    /**
+     * Change of the paragraphs at a position (0-based), stored in the form needed to apply it again and to invert it.
+     */
+    static final class Edit {
+
+        /**
+         * Kind of change recorded by an {@link Edit}.
+         */
+        enum Kind {
+            /**
+             * The paragraph has been inserted at the position.
+             */
+            INSERT,
+            /**
+             * The paragraph has been removed from the position.
+             */
+            REMOVE,
+            /**
+             * Within the paragraph at the position, the removed text starting at the offset has been replaced with
+             * the inserted text.
+             */
+            REPLACE,
+            /**
+             * Within several paragraphs, the text has been replaced as stored by the edits of kind REPLACE, in
+             * ascending order of their positions.
+             */
+            REPLACE_ALL
+        }
+
+        private final Kind kind;
+        private final int position;
+        private final Paragraph paragraph;
+        private final int offset;
+        private final String removedText;
+        private final String insertedText;
+        private final List<Edit> replacements;
+        private final long sizeBytes;
+
+        private Edit(final Kind kind, final int position, final Paragraph paragraph, final int offset,
+                     final String removedText, final String insertedText) {
+            this.kind = kind;
+            this.position = position;
+            this.paragraph = paragraph;
+            this.offset = offset;
+            this.removedText = removedText;
+            this.insertedText = insertedText;
+            replacements = null;
+            // An inserted or removed paragraph counts with its content, since the journal may be the only one still
+            // referencing it
+            sizeBytes = EDIT_OVERHEAD_BYTES + 2L * (kind == Kind.REPLACE
+                    ? removedText.length() + insertedText.length()
+                    : paragraph.getContent().length());
+        }
+
+        private Edit(final List<Edit> replacements) {
+            kind = Kind.REPLACE_ALL;
+            position = replacements.get(0).getPosition();
+            paragraph = null;
+            offset = 0;
+            removedText = null;
+            insertedText = null;
+            this.replacements = List.copyOf(replacements);
+            long replacementsSizeBytes = EDIT_OVERHEAD_BYTES;
+            for (Edit replacement : replacements) {
+                replacementsSizeBytes += replacement.getSizeBytes();
+            }
+            sizeBytes = replacementsSizeBytes;
+        }
+
+        static Edit insert(final int position, final Paragraph paragraph) {
+            return new Edit(Kind.INSERT, position, paragraph, 0, null, null);
+        }
+
+        static Edit remove(final int position, final Paragraph paragraph) {
+            return new Edit(Kind.REMOVE, position, paragraph, 0, null, null);
+        }
+
+        /**
+         * Creates the edit of a replacement within a paragraph from its content before and after. Only the range
+         * between the common prefix and the common suffix of both contents is stored.
+         *
+         * @param position      the position of the paragraph
+         * @param contentBefore the content before the replacement
+         * @param contentAfter  the content after the replacement
+         * @return the edit of the replacement
+         */
+        static Edit replace(final int position, final String contentBefore, final String contentAfter) {
+            final int maxCommonLength = Math.min(contentBefore.length(), contentAfter.length());
+            int prefixLength = 0;
+            while (prefixLength < maxCommonLength
+                    && contentBefore.charAt(prefixLength) == contentAfter.charAt(prefixLength)) {
+                prefixLength++;
+            }
+            int suffixLength = 0;
+            while (suffixLength < maxCommonLength - prefixLength
+                    && contentBefore.charAt(contentBefore.length() - 1 - suffixLength)
+                    == contentAfter.charAt(contentAfter.length() - 1 - suffixLength)) {
+                suffixLength++;
+            }
+            return replaceRange(position, prefixLength,
+                    contentBefore.substring(prefixLength, contentBefore.length() - suffixLength),
+                    contentAfter.substring(prefixLength, contentAfter.length() - suffixLength));
+        }
+
+        /**
+         * Creates the edit of a replacement of the given range within a paragraph.
+         *
+         * @param position     the position of the paragraph
+         * @param offset       the offset of the range within the paragraph
+         * @param removedText  the text of the range before the replacement
+         * @param insertedText the text of the range after the replacement
+         * @return the edit of the replacement
+         */
+        static Edit replaceRange(final int position, final int offset, final String removedText,
+                                 final String insertedText) {
+            return new Edit(Kind.REPLACE, position, null, offset, removedText, insertedText);
+        }
+
+        /**
+         * Combines the edits of the replacements within several paragraphs into one edit.
+         *
+         * @param replacements the edits of kind REPLACE in ascending order of their positions, at least one
+         * @return the edit of all replacements
+         */
+        static Edit replaceAll(final List<Edit> replacements) {
+            return new Edit(replacements);
+        }
+
+        /**
+         * Returns the edit which reverts this one, i.e. the change applied to undo it.
+         *
+         * @return the inverse edit
+         */
+        Edit inverse() {
+            return switch (kind) {
+                case INSERT -> remove(position, paragraph);
+                case REMOVE -> insert(position, paragraph);
+                case REPLACE -> replaceRange(position, offset, insertedText, removedText);
+                case REPLACE_ALL -> replaceAll(replacements.stream().map(Edit::inverse).toList());
+            };
+        }
+
+        Kind getKind() {
+            return kind;
+        }
+
+        int getPosition() {
+            return position;
+        }
+
+        Paragraph getParagraph() {
+            return paragraph;
+        }
+
+        int getOffset() {
+            return offset;
+        }
+
+        String getRemovedText() {
+            return removedText;
+        }
+
+        String getInsertedText() {
+            return insertedText;
+        }
+
+        /**
+         * Returns the edits of the single replacements combined by an edit of kind REPLACE_ALL.
+         *
+         * @return the edits in ascending order of their positions, or null for any other kind of edit
+         */
+        List<Edit> getReplacements() {
+            return replacements;
+        }
+
+        /**
+         * Returns the estimated number of bytes held by this edit, as calculated upon its creation.
+         */
+        long getSizeBytes() {
+            return sizeBytes;
+        }
+
+    }
+
+}
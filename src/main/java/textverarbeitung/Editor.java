@@ -1,59 +1,194 @@
 package textverarbeitung;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.PatternSyntaxException;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static textverarbeitung.Command.ADD;
 import static textverarbeitung.Command.DEL;
 import static textverarbeitung.Command.DUMMY;
 import static textverarbeitung.Command.FORMAT_FIX;
 import static textverarbeitung.Command.FORMAT_RAW;
+import static textverarbeitung.Command.OPEN;
+import static textverarbeitung.Command.REGEX_REPLACE;
+import static textverarbeitung.Command.REGEX_REPLACE_ALL;
 import static textverarbeitung.Command.REPLACE;
+import static textverarbeitung.Command.REPLACE_ALL;
 import static textverarbeitung.TextConstants.WHITESPACE;
 
 /**
  * Main Class of the textverarbeitung Editor.
  * Holds references to all Subclasses and handles the runtime of the program.
+ * <p>
+ * The Editor either runs interactively, prompting the user for every input, or in batch mode, where it executes the
+ * commands of a script back to back. In both modes the text for ADD, SEARCH and all kinds of REPLACE can be given
+ * inline after the command, separated by {@value InputParser#PAYLOAD_SEPARATOR} (escaped as {@code \|} within the
+ * text), or on the following lines.
+ * <p>
+ * With a {@link WriteAheadLog}, the session recovers the state of the previous one on start, and every change of the
+ * paragraphs or of the format is logged after it has been applied. UNDO and REDO are logged as the change they apply,
+ * so the changes can still be undone after a snapshot has replaced the log written so far. Once a change or a snapshot
+ * could not be logged, the session stops logging: the following changes refer to the positions of paragraphs the log
+ * does not know of, so the session is only recovered up to the last change logged before.
+ * <p>
+ * Every session starts with a {@link Document} of its own and can open documents shared by name with the other
+ * sessions of the same {@link DocumentRegistry}, i.e. those of an {@link EditorServer}. The document is only locked
+ * while a command is executed, and the paragraph index given with a command is validated once more under the lock,
+ * since another session may have changed the paragraphs while the text of the command was read. PRINT and SAVE work
+ * on a snapshot of the paragraphs, so other sessions can go on changing them in the meantime. UNDO and REDO are
+ * refused in a shared document, as the last change may have been made by another session. Remote sessions, i.e.
+ * those of an {@link EditorServer}, cannot LOAD or SAVE any files, since every connection could read or overwrite the
+ * files of the server with them.
  */
 public class Editor {
 
+    private static final String COMMENT_PREFIX = "#";
+    /**
+     * Name of the logged record of replaced ranges, as applied by UNDO or REDO, which is no command of its own.
+     */
+    private static final String REPLACE_RANGES_RECORD = "REPLACE_RANGES";
+
     private final Console console;
     private final InputParser inputParser;
-    private final EditorManager editorManager;
-    private final IndexManager indexManager;
     private final ValidationManager validationManager;
     private final FormatManager formatManager;
+    private final PersistenceManager persistenceManager;
+    private final Deque<String> inlinePayloads;
+    private final WriteAheadLog writeAheadLog;
+    private final DocumentRegistry documentRegistry;
+    private final boolean fileAccessAllowed;
 
+    private Document document;
+    private EditorManager editorManager;
     private boolean editorRunning;
+    private boolean interactive;
+    /**
+     * Whether logging to the {@link WriteAheadLog} has failed, after which no more changes are logged.
+     */
+    private boolean loggingFailed;
 
     /**
-     * Creates a new Editor.
-     * It initializes a new {@link Console}, {@link InputParser}, {@link ValidationManager}, {@link EditorManager}, {@link IndexManager} and {@link FormatManager}
+     * Creates a new Editor reading from {@link System#in} with a {@link Console} in the
+     * {@link OutputMode#INTERACTIVE} mode.
      */
     public Editor() {
-        console = new Console();
+        this(new Console(OutputMode.INTERACTIVE));
+    }
+
+    /**
+     * Creates a new Editor.
+     * It initializes a new {@link InputParser}, {@link ValidationManager}, {@link EditorManager}, {@link IndexManager}, {@link FormatManager} and {@link PersistenceManager}
+     *
+     * @param console the {@link Console} to read the input from and write the output to
+     */
+    public Editor(final Console console) {
+        this(console, (WriteAheadLog) null);
+    }
+
+    /**
+     * Creates a new Editor whose session is logged to the given {@link WriteAheadLog}.
+     * It initializes a new {@link InputParser}, {@link ValidationManager}, {@link EditorManager}, {@link IndexManager}, {@link FormatManager} and {@link PersistenceManager}
+     *
+     * @param console       the {@link Console} to read the input from and write the output to
+     * @param writeAheadLog the {@link WriteAheadLog} to recover from and to log the changes to, or null for none
+     */
+    public Editor(final Console console, final WriteAheadLog writeAheadLog) {
+        this(console, writeAheadLog, new DocumentRegistry());
+    }
+
+    /**
+     * Creates a new Editor for a remote session which can open the documents shared within the given
+     * {@link DocumentRegistry}, but cannot access any files.
+     *
+     * @param console          the {@link Console} to read the input from and write the output to
+     * @param documentRegistry the {@link DocumentRegistry} of the documents shared with other sessions
+     */
+    Editor(final Console console, final DocumentRegistry documentRegistry) {
+        this(console, null, documentRegistry, false);
+    }
+
+    private Editor(final Console console, final WriteAheadLog writeAheadLog, final DocumentRegistry documentRegistry) {
+        this(console, writeAheadLog, documentRegistry, true);
+    }
+
+    private Editor(final Console console, final WriteAheadLog writeAheadLog, final DocumentRegistry documentRegistry,
+                   final boolean fileAccessAllowed) {
+        this.console = console;
+        this.writeAheadLog = writeAheadLog;
+        this.documentRegistry = documentRegistry;
+        this.fileAccessAllowed = fileAccessAllowed;
         inputParser = new InputParser();
         validationManager = new ValidationManager();
-        editorManager = new EditorManager();
-        indexManager = new IndexManager();
         formatManager = new FormatManager();
+        persistenceManager = new PersistenceManager();
+        inlinePayloads = new ArrayDeque<>();
+        selectDocument(new Document(null));
     }
 
     /**
      * Main Program loop
      * Prompts user for input and uses {@link InputParser} to validate the input and get the used {@link Command}.
      * The {@link Command} as well as Parameters are then passed on to processSelectedCommand method.
+     * The output is buffered by the {@link Console} and written out before every prompt and on exit.
      */
     public void run() {
         editorRunning = true;
-        printIntro();
-
-        while (editorRunning) {
-            console.print("> ");
-            final String[] splitUserInput = inputParser.splitUserInput(console.readLine());
-            final Command selectedCommand = inputParser.getMatchingCommand(splitUserInput);
-            if (inputParser.hasCorrectNumberOfParameters(selectedCommand, splitUserInput)) {
-                processSelectedCommand(selectedCommand, splitUserInput);
-            } else {
-                printInvalidInput();
+        interactive = true;
+        try {
+            printIntro();
+            recoverSession();
+
+            while (editorRunning) {
+                console.print("> ");
+                final String rawUserInput = readInput();
+                if (rawUserInput != null) {
+                    processUserInput(rawUserInput);
+                }
+            }
+        } finally {
+            closeWriteAheadLog();
+            console.flush();
+        }
+    }
+
+    /**
+     * Batch Program loop
+     * Executes the commands read from the {@link Console} back to back until EXIT or the end of the input, without
+     * any prompts, intro or help texts. Empty lines and lines starting with {@value #COMMENT_PREFIX} are skipped.
+     * A summary of the executed and failed commands is printed at the end.
+     */
+    public void runBatch() {
+        editorRunning = true;
+        interactive = false;
+        int executedCommands = 0;
+        int failedCommands = 0;
+        final long startTime = System.nanoTime();
+        try {
+            recoverSession();
+            while (editorRunning) {
+                final String rawUserInput = readInput();
+                if (rawUserInput == null || rawUserInput.isBlank() || rawUserInput.trim().startsWith(COMMENT_PREFIX)) {
+                    continue;
+                }
+                if (processUserInput(rawUserInput)) {
+                    executedCommands++;
+                } else {
+                    failedCommands++;
+                }
             }
+            console.printLine("Batch finished: " + executedCommands + " commands executed, " + failedCommands
+                    + " failed in " + NANOSECONDS.toMillis(System.nanoTime() - startTime) + " ms.");
+        } finally {
+            closeWriteAheadLog();
+            console.flush();
         }
     }
 
@@ -63,7 +198,43 @@ public class Editor {
     private void printIntro() {
         console.printLine("Welcome to the command line based text editor program!");
         console.printLine("Please enter any available command including parameter (if required) from the list below:");
-        console.printLine(Command.getAllHelpTexts());
+        console.printLine(getHelpTexts());
+    }
+
+    /**
+     * Returns the help texts of all {@link Command}s, without ANSI codes unless the output goes to a terminal.
+     */
+    private String getHelpTexts() {
+        return console.isTerminal() ? Command.getAllHelpTexts() : Command.getAllPlainHelpTexts();
+    }
+
+    /**
+     * Uses {@link InputParser} to separate the inline payloads and to get the used {@link Command} of the given input,
+     * which is then passed on to processSelectedCommand method.
+     * A command given more inline payloads than it reads is not executed, so no payload is dropped silently.
+     *
+     * @param rawUserInput the input line as read from the {@link Console}
+     * @return {@code true} if the command has been executed successfully
+     */
+    private boolean processUserInput(final String rawUserInput) {
+        final String[] inputParts = inputParser.splitInlinePayloads(rawUserInput);
+        inlinePayloads.clear();
+        for (int i = 1; i < inputParts.length; i++) {
+            inlinePayloads.add(inputParts[i]);
+        }
+        final String[] splitUserInput = inputParser.splitUserInput(inputParts[0]);
+        final Command selectedCommand = inputParser.getMatchingCommand(splitUserInput);
+        if (!inputParser.hasCorrectNumberOfParameters(selectedCommand, splitUserInput)) {
+            printInvalidInput();
+            return false;
+        }
+        if (inlinePayloads.size() > selectedCommand.getNumberOfPayloads()) {
+            console.printError(selectedCommand.getIdentifier() + " takes " + selectedCommand.getNumberOfPayloads()
+                    + " inline texts at most, but " + inlinePayloads.size() + " were given.");
+            inlinePayloads.clear();
+            return false;
+        }
+        return processSelectedCommand(selectedCommand, splitUserInput);
     }
 
     /**
@@ -73,21 +244,34 @@ public class Editor {
      *
      * @param selectedCommand the {@link Command} that was input.
      * @param userInput array of {@link String} Objects, representing the user Input.
+     * @return {@code true} if the command has been executed successfully
      */
-    private void processSelectedCommand(final Command selectedCommand, final String[] userInput) {
-        switch (selectedCommand) {
+    private boolean processSelectedCommand(final Command selectedCommand, final String[] userInput) {
+        return switch (selectedCommand) {
             case ADD -> processAdd(userInput);
             case DEL -> processDelete(userInput);
             case DUMMY -> processDummy(userInput);
-            case EXIT -> editorRunning = false;
+            case EXIT -> processExit();
             case FORMAT_FIX -> processFormatFix(userInput);
             case FORMAT_RAW -> processFormatRaw();
-            case HELP -> console.printLine(Command.getAllHelpTexts());
+            case HELP -> processHelp();
             case INDEX -> processIndex();
-            case PRINT -> console.printLine(formatManager.transformParagraphsToSelectedFormat(editorManager.getParagraphs()));
+            case LOAD -> processLoad();
+            case OPEN -> processOpen(userInput);
+            case PRINT -> processPrint();
+            case REDO -> processRedo();
+            case REGEX_REPLACE -> processRegexReplace(userInput);
+            case REGEX_REPLACE_ALL -> processRegexReplaceAll();
             case REPLACE -> processReplace(userInput);
-            default -> printInvalidInput();
-        }
+            case REPLACE_ALL -> processReplaceAll();
+            case SAVE -> processSave();
+            case SEARCH -> processSearch();
+            case UNDO -> processUndo();
+            default -> {
+                printInvalidInput();
+                yield false;
+            }
+        };
     }
 
     /**
@@ -96,17 +280,21 @@ public class Editor {
      * The {@link EditorManager} handles the implementation of the addition.
      *
      * @param userInput array of {@link String} Objects, representing the user Input.
+     * @return {@code true} if the paragraph has been added
      */
-    private void processAdd(final String[] userInput) {
-        final ValidationResult validationResult = validationManager.validateParagraphIndex(
-                inputParser.getSelectedParameterOrNull(ADD, userInput), editorManager.getParagraphSize(), true);
+    private boolean processAdd(final String[] userInput) {
+        final String parameter = inputParser.getSelectedParameterOrNull(ADD, userInput);
+        final ValidationResult validationResult = validateParagraphIndex(parameter, true);
         if (validationResult.isValid()) {
-            console.print("Please enter text to add: ");
-            final String paragraphToAdd = console.readLine();
-            final String resultMessage = editorManager.addParagraph(paragraphToAdd, validationResult.getParsedParameter());
-            console.printLine(resultMessage);
+            final String paragraphToAdd = readPayload("Please enter text to add: ");
+            if (paragraphToAdd == null) {
+                return false;
+            }
+            return applyAtParagraphIndex(ADD, parameter, true,
+                    position -> editorManager.addParagraph(paragraphToAdd, position), paragraphToAdd);
         } else {
             console.printError(validationResult.getErrorMessage());
+            return false;
         }
     }
 
@@ -116,16 +304,11 @@ public class Editor {
      * The {@link EditorManager} handles implementation.
      *
      * @param userInput array of {@link String} Objects, representing the user Input.
+     * @return {@code true} if the input was valid
      */
-    private void processDelete(final String[] userInput) {
-        final ValidationResult validationResult = validationManager.validateParagraphIndex(
-                inputParser.getSelectedParameterOrNull(DEL, userInput), editorManager.getParagraphSize(), false);
-        if (validationResult.isValid()) {
-            final String resultMessage = editorManager.deleteParagraph(validationResult.getParsedParameter());
-            console.printLine(resultMessage);
-        } else {
-            console.printError(validationResult.getErrorMessage());
-        }
+    private boolean processDelete(final String[] userInput) {
+        return applyAtParagraphIndex(DEL, inputParser.getSelectedParameterOrNull(DEL, userInput), false,
+                editorManager::deleteParagraph);
     }
 
     /**
@@ -134,16 +317,11 @@ public class Editor {
      * The {@link EditorManager} handles the implementation of the addition.
      *
      * @param userInput array of {@link String} Objects, representing the user Input.
+     * @return {@code true} if the paragraph has been added
      */
-    private void processDummy(final String[] userInput) {
-        final ValidationResult validationResult = validationManager.validateParagraphIndex(
-                inputParser.getSelectedParameterOrNull(DUMMY, userInput), editorManager.getParagraphSize(), true);
-        if (validationResult.isValid()) {
-            final String resultMessage = editorManager.addDummyText(validationResult.getParsedParameter());
-            console.printLine(resultMessage);
-        } else {
-            console.printError(validationResult.getErrorMessage());
-        }
+    private boolean processDummy(final String[] userInput) {
+        return applyAtParagraphIndex(DUMMY, inputParser.getSelectedParameterOrNull(DUMMY, userInput), true,
+                editorManager::addDummyText);
     }
 
     /**
@@ -152,35 +330,210 @@ public class Editor {
      * The {@link FormatManager} handles implementation
      *
      * @param userInput array of {@link String} Objects, representing the user Input.
+     * @return {@code true} if the format has been changed
      */
-    private void processFormatFix(final String[] userInput) {
+    private boolean processFormatFix(final String[] userInput) {
         final ValidationResult validationResult = validationManager.validateFixedColumnWidth(
                 inputParser.getSelectedParameterOrNull(FORMAT_FIX, userInput));
         if (validationResult.isValid()) {
             formatManager.setSelectedFormat(validationResult.getParsedParameter());
             console.printLine("Format has been set to " + FORMAT_FIX.getIdentifier() + WHITESPACE + validationResult.getParsedParameter());
+            logChange(FORMAT_FIX, validationResult.getParsedParameter());
+            return true;
         } else {
             console.printError(validationResult.getErrorMessage());
+            return false;
         }
     }
 
     /**
      * Method to process and change the printing style to Format Raw.
      * The {@link FormatManager} handles implementation.
+     *
+     * @return always {@code true}
      */
-    private void processFormatRaw() {
+    private boolean processFormatRaw() {
         formatManager.setDefaultFormat();
         console.printLine("Format has been set to " + FORMAT_RAW.getIdentifier());
+        logChange(FORMAT_RAW);
+        return true;
+    }
+
+    /**
+     * Method to stop the editor after the current command.
+     *
+     * @return always {@code true}
+     */
+    private boolean processExit() {
+        editorRunning = false;
+        return true;
+    }
+
+    /**
+     * Method to undo the last change of the paragraphs.
+     * The {@link EditorManager} handles implementation. If a change has actually been undone, the inverse change
+     * applied to undo it is logged.
+     *
+     * @return {@code false} if the document is shared
+     */
+    private boolean processUndo() {
+        if (document.isShared()) {
+            console.printError("Changes cannot be undone in the shared document '" + document.getName()
+                    + "', as they may have been made by other sessions.");
+            return false;
+        }
+        final List<EditJournal.Edit> appliedEdits = new ArrayList<>(1);
+        console.printLine(document.lockedExclusively(() -> editorManager.undo(appliedEdits::add)));
+        appliedEdits.forEach(this::logEdit);
+        return true;
+    }
+
+    /**
+     * Method to redo the last undone change of the paragraphs.
+     * The {@link EditorManager} handles implementation. If a change has actually been redone, it is logged.
+     *
+     * @return {@code false} if the document is shared
+     */
+    private boolean processRedo() {
+        if (document.isShared()) {
+            console.printError("Changes cannot be redone in the shared document '" + document.getName()
+                    + "', as they may have been made by other sessions.");
+            return false;
+        }
+        final List<EditJournal.Edit> appliedEdits = new ArrayList<>(1);
+        console.printLine(document.lockedExclusively(() -> editorManager.redo(appliedEdits::add)));
+        appliedEdits.forEach(this::logEdit);
+        return true;
+    }
+
+    /**
+     * Method to print the help text of all {@link Command}s.
+     *
+     * @return always {@code true}
+     */
+    private boolean processHelp() {
+        console.printLine(getHelpTexts());
+        return true;
     }
 
     /**
      * Method to process and print out Index using {@link IndexManager}
+     * The {@link EditorManager} keeps the index up to date, so it only has to be read here.
+     *
+     * @return always {@code true}
+     */
+    private boolean processIndex() {
+        console.printLine(editorManager.getIndicesInPrintFormat());
+        return true;
+    }
+
+    /**
+     * Method to load the {@link Paragraph}s of a file, replacing the current ones.
+     * The {@link PersistenceManager} reads the file, the {@link EditorManager} takes over the paragraphs.
+     *
+     * @return {@code true} if the file has been loaded
+     */
+    private boolean processLoad() {
+        if (!fileAccessAllowed) {
+            console.printError("Files cannot be loaded in a remote session.");
+            return false;
+        }
+        final Path path = readPath("Please enter the path of the file to load: ");
+        if (path == null) {
+            return false;
+        }
+        final List<Paragraph> loadedParagraphs = new ArrayList<>();
+        try {
+            persistenceManager.load(path, line -> loadedParagraphs.add(new Paragraph(line)));
+        } catch (IOException e) {
+            console.printError("File '" + path + "' could not be loaded: " + e.getMessage());
+            return false;
+        }
+        final String resultMessage = document.lockedExclusively(() -> editorManager.loadParagraphs(loadedParagraphs));
+        console.printLine(resultMessage + " from '" + path + "'.");
+        // Loading is not logged, the loaded paragraphs are saved as a snapshot instead
+        if (writeAheadLog != null) {
+            checkpoint();
+        }
+        return true;
+    }
+
+    /**
+     * Method to save all {@link Paragraph}s to a file using the {@link PersistenceManager}.
+     *
+     * @return {@code true} if the file has been saved
+     */
+    private boolean processSave() {
+        if (!fileAccessAllowed) {
+            console.printError("Files cannot be saved in a remote session.");
+            return false;
+        }
+        final Path path = readPath("Please enter the path of the file to save to: ");
+        if (path == null) {
+            return false;
+        }
+        final List<Paragraph> paragraphs = editorManager.getParagraphs();
+        try {
+            persistenceManager.save(path, paragraphs);
+        } catch (IOException e) {
+            console.printError("File '" + path + "' could not be saved: " + e.getMessage());
+            return false;
+        }
+        console.printLine(paragraphs.size() + " Paragraphs were saved to '" + path + "'.");
+        return true;
+    }
+
+    /**
+     * Method to find all occurrences of a text in all {@link Paragraph}s.
      * The {@link EditorManager} handles implementation.
+     *
+     * @return {@code true} if a text to search for has been read
      */
-    private void processIndex() {
-        indexManager.calculateIndices(editorManager.getParagraphs());
-        final String resultMessage = indexManager.transformIndicesToPrintFormat();
-        console.printLine(resultMessage);
+    private boolean processSearch() {
+        final String searchText = readPayload("Please enter the text you would like to search for: ");
+        if (searchText == null) {
+            return false;
+        }
+        console.printLine(editorManager.search(searchText));
+        return true;
+    }
+
+    /**
+     * Method to print out all {@link Paragraph}s in the selected {@link Format}.
+     * The {@link FormatManager} streams the output of a snapshot of the paragraphs to the {@link Console} without
+     * building it as a whole.
+     *
+     * @return always {@code true}
+     */
+    private boolean processPrint() {
+        final List<Paragraph> paragraphs = editorManager.getParagraphs();
+        console.printLine(sink -> formatManager.writeParagraphsInSelectedFormat(paragraphs, sink));
+        return true;
+    }
+
+    /**
+     * Method to open the {@link Document} with the given name, which is shared with all other sessions opening it.
+     * The current document is kept for the other sessions having opened it.
+     *
+     * @param userInput array of {@link String} Objects, representing the user Input.
+     * @return {@code true} if the document has been opened
+     */
+    private boolean processOpen(final String[] userInput) {
+        if (writeAheadLog != null) {
+            console.printError("Documents cannot be opened while the session is logged to a write-ahead log.");
+            return false;
+        }
+        final String name = inputParser.getSelectedParameterOrNull(OPEN, userInput);
+        final Document openedDocument = documentRegistry.open(name);
+        if (openedDocument == null) {
+            console.printError("Document '" + name + "' cannot be created, as there are "
+                    + documentRegistry.getMaxDocuments() + " documents already.");
+            return false;
+        }
+        selectDocument(openedDocument);
+        console.printLine("Document '" + name + "' with " + document.locked(editorManager::getParagraphSize)
+                + " Paragraphs has been opened.");
+        return true;
     }
 
     /**
@@ -190,30 +543,403 @@ public class Editor {
      * Then it passes the {@link Paragraph} Index parameter, search- and replace-text to the {@link EditorManager}
      *
      * @param userInput array of {@link String} Objects, representing the user Input.
+     * @return {@code true} if the input was valid
      */
-    private void processReplace(final String[] userInput) {
-        final ValidationResult validationResult = validationManager.validateParagraphIndex(
-                inputParser.getSelectedParameterOrNull(REPLACE, userInput), editorManager.getParagraphSize(), false);
+    private boolean processReplace(final String[] userInput) {
+        final String parameter = inputParser.getSelectedParameterOrNull(REPLACE, userInput);
+        final ValidationResult validationResult = validateParagraphIndex(parameter, false);
         if (validationResult.isValid()) {
-            console.print("Please enter the character or word you would like to replace: ");
-            String searchText = console.readLine();
-            console.print("Please enter what you want to replace it with: ");
-            String replaceText = console.readLine();
-            final String resultMessage = editorManager.replace(validationResult.getParsedParameter(), searchText, replaceText);
-            console.printLine(resultMessage);
+            String searchText = readPayload("Please enter the character or word you would like to replace: ");
+            String replaceText = searchText == null ? null : readPayload("Please enter what you want to replace it with: ");
+            if (replaceText == null) {
+                return false;
+            }
+            return applyAtParagraphIndex(REPLACE, parameter, false,
+                    position -> editorManager.replace(position, searchText, replaceText), searchText, replaceText);
+        } else {
+            console.printError(validationResult.getErrorMessage());
+            return false;
+        }
+
+    }
+
+    /**
+     * Processes the Replace All Command.
+     * It receives the search- & replace-text from the user and passes them on to the {@link EditorManager}, which
+     * replaces them in all {@link Paragraph}s while the {@link Document} is locked exclusively.
+     *
+     * @return {@code true} if the search- & replace-text have been read
+     */
+    private boolean processReplaceAll() {
+        final String searchText = readPayload("Please enter the character or word you would like to replace: ");
+        final String replaceText = searchText == null ? null : readPayload("Please enter what you want to replace it with: ");
+        if (replaceText == null) {
+            return false;
+        }
+        console.printLine(document.lockedExclusively(() -> editorManager.replaceAll(searchText, replaceText)));
+        logChange(REPLACE_ALL, searchText, replaceText);
+        return true;
+    }
+
+    /**
+     * Processes the Regex Replace Command like the Replace Command, but with a regular expression to replace the
+     * matches of. An invalid expression or a replacement referring to a missing group is printed as an error.
+     *
+     * @param userInput array of {@link String} Objects, representing the user Input.
+     * @return {@code true} if the input was valid
+     */
+    private boolean processRegexReplace(final String[] userInput) {
+        final String parameter = inputParser.getSelectedParameterOrNull(REGEX_REPLACE, userInput);
+        final ValidationResult validationResult = validateParagraphIndex(parameter, false);
+        if (!validationResult.isValid()) {
+            console.printError(validationResult.getErrorMessage());
+            return false;
+        }
+        final String expression = readPayload("Please enter the regular expression you would like to replace: ");
+        final String replaceText = expression == null ? null : readPayload("Please enter what you want to replace the matches with: ");
+        if (replaceText == null) {
+            return false;
+        }
+        try {
+            return applyAtParagraphIndex(REGEX_REPLACE, parameter, false,
+                    position -> editorManager.regexReplace(position, expression, replaceText), expression, replaceText);
+        } catch (IllegalArgumentException e) {
+            printRegexError(e);
+            return false;
+        }
+    }
+
+    /**
+     * Processes the Regex Replace All Command like the Replace All Command, but with a regular expression to replace
+     * the matches of. An invalid expression or a replacement referring to a missing group is printed as an error.
+     *
+     * @return {@code true} if the matches have been replaced
+     */
+    private boolean processRegexReplaceAll() {
+        final String expression = readPayload("Please enter the regular expression you would like to replace: ");
+        final String replaceText = expression == null ? null : readPayload("Please enter what you want to replace the matches with: ");
+        if (replaceText == null) {
+            return false;
+        }
+        final String resultMessage;
+        try {
+            resultMessage = document.lockedExclusively(() -> editorManager.regexReplaceAll(expression, replaceText));
+        } catch (IllegalArgumentException e) {
+            printRegexError(e);
+            return false;
+        }
+        console.printLine(resultMessage);
+        logChange(REGEX_REPLACE_ALL, expression, replaceText);
+        return true;
+    }
+
+    /**
+     * Prints why the matches of a regular expression could not be replaced, in a single line.
+     *
+     * @param exception the exception thrown for an invalid expression or replacement
+     */
+    private void printRegexError(final IllegalArgumentException exception) {
+        if (exception instanceof PatternSyntaxException patternSyntaxException) {
+            console.printError("The regular expression is invalid: " + patternSyntaxException.getDescription()
+                    + " near index " + patternSyntaxException.getIndex() + ".");
         } else {
+            console.printError("The matches could not be replaced: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Validates the paragraph index parameter of a command against the current number of paragraphs.
+     *
+     * @param parameter   the paragraph index as given with the command, or null if it has been omitted
+     * @param allowExceed whether the index may exceed the number of paragraphs by one
+     * @return the {@link ValidationResult} holding the parsed index
+     */
+    private ValidationResult validateParagraphIndex(final String parameter, final boolean allowExceed) {
+        return document.locked(() -> validationManager.validateParagraphIndex(parameter,
+                editorManager.getParagraphSize(), allowExceed));
+    }
+
+    /**
+     * Applies a change at the paragraph index given with a command, then prints its result and logs it.
+     * The index is validated and the change applied while the {@link Document} is locked, so no other session can
+     * change the number of paragraphs in between. Only a replacement keeps the number of paragraphs, so it merely
+     * shares the structure lock and locks the paragraph it changes.
+     *
+     * @param command     the {@link Command} to apply
+     * @param parameter   the paragraph index as given with the command, or null if it has been omitted
+     * @param allowExceed whether the index may exceed the number of paragraphs by one
+     * @param change      applies the change at the validated index and returns its result message
+     * @param payloads    the texts given with the command, to be logged after the index
+     * @return {@code true} if the index was valid
+     */
+    private boolean applyAtParagraphIndex(final Command command, final String parameter, final boolean allowExceed,
+                                          final Function<Integer, String> change, final String... payloads) {
+        final boolean structural = command != REPLACE && command != REGEX_REPLACE;
+        final ValidationResult validationResult;
+        final String resultMessage;
+        document.lockStructure(structural);
+        try {
+            validationResult = validationManager.validateParagraphIndex(parameter, editorManager.getParagraphSize(),
+                    allowExceed);
+            final Integer position = validationResult.getParsedParameter();
+            if (!validationResult.isValid()) {
+                resultMessage = null;
+            } else if (structural) {
+                resultMessage = change.apply(position);
+            } else {
+                resultMessage = document.lockedParagraph(position == null ? editorManager.getParagraphSize() : position,
+                        () -> change.apply(position));
+            }
+        } finally {
+            document.unlockStructure(structural);
+        }
+        if (!validationResult.isValid()) {
             console.printError(validationResult.getErrorMessage());
+            return false;
+        }
+        console.printLine(resultMessage);
+        final Object[] arguments = new Object[payloads.length + 1];
+        arguments[0] = validationResult.getParsedParameter();
+        System.arraycopy(payloads, 0, arguments, 1, payloads.length);
+        logChange(command, arguments);
+        return true;
+    }
+
+    private void selectDocument(final Document selectedDocument) {
+        document = selectedDocument;
+        editorManager = selectedDocument.getEditorManager();
+    }
+
+    /**
+     * Returns the next inline payload of the current input line. If there is none left, it prompts the user (only in
+     * interactive mode) and reads the next line from the {@link Console}.
+     *
+     * @param prompt the text asking the user for the input
+     * @return the payload or {@code null} if the end of the input has been reached
+     */
+    private String readPayload(final String prompt) {
+        if (!inlinePayloads.isEmpty()) {
+            return inlinePayloads.poll();
+        }
+        if (interactive) {
+            console.print(prompt);
+        }
+        return readInput();
+    }
+
+    /**
+     * Reads a file path with readPayload and validates it.
+     *
+     * @param prompt the text asking the user for the path
+     * @return the path or {@code null} if no valid path has been given
+     */
+    private Path readPath(final String prompt) {
+        final String fileName = readPayload(prompt);
+        if (fileName == null) {
+            return null;
         }
+        if (fileName.isBlank()) {
+            console.printError("A file path must be specified.");
+            return null;
+        }
+        try {
+            return Path.of(fileName.trim());
+        } catch (InvalidPathException e) {
+            console.printError("Given file path '" + fileName + "' is invalid: " + e.getReason());
+            return null;
+        }
+    }
+
+    /**
+     * Reads the next line from the {@link Console} and stops the editor if the end of the input has been reached.
+     *
+     * @return the line or {@code null} if the end of the input has been reached
+     */
+    private String readInput() {
+        final String line = console.readLine();
+        if (line == null) {
+            editorRunning = false;
+        }
+        return line;
+    }
+
+    /**
+     * Recovers the paragraphs and the format of the previous session from the {@link WriteAheadLog}: its latest
+     * snapshot is loaded and the changes logged since are applied again, without any output.
+     * If the session cannot be recovered, the editor is stopped to not overwrite the log.
+     */
+    private void recoverSession() {
+        if (writeAheadLog == null) {
+            return;
+        }
+        try {
+            final int replayedRecords = writeAheadLog.recover(editorManager::loadParagraphs, this::replayChange);
+            if (editorManager.getParagraphSize() > 0 || replayedRecords > 0) {
+                console.printLine("Recovered " + editorManager.getParagraphSize()
+                        + " Paragraphs after replaying " + replayedRecords + " logged changes.");
+            }
+        } catch (IOException | RuntimeException e) {
+            console.printError("The previous session could not be recovered: " + e.getMessage());
+            editorRunning = false;
+        }
+    }
+
+    /**
+     * Applies a change logged by logChange again.
+     *
+     * @param fields the name of the {@link Command} followed by its arguments
+     */
+    private void replayChange(final String[] fields) {
+        if (REPLACE_RANGES_RECORD.equals(fields[0])) {
+            final List<EditJournal.Edit> replacements = new ArrayList<>();
+            for (int i = 1; i + 3 < fields.length; i += 4) {
+                replacements.add(EditJournal.Edit.replaceRange(Integer.parseInt(fields[i]) - 1,
+                        Integer.parseInt(fields[i + 1]), fields[i + 2], fields[i + 3]));
+            }
+            editorManager.applyEdit(replacements.size() == 1
+                    ? replacements.get(0)
+                    : EditJournal.Edit.replaceAll(replacements));
+            return;
+        }
+        switch (Command.valueOf(fields[0])) {
+            case ADD -> editorManager.addParagraph(fields[2], parsePosition(fields[1]));
+            case DEL -> editorManager.deleteParagraph(parsePosition(fields[1]));
+            case DUMMY -> editorManager.addDummyText(parsePosition(fields[1]));
+            case FORMAT_FIX -> formatManager.setSelectedFormat(Integer.valueOf(fields[1]));
+            case FORMAT_RAW -> formatManager.setDefaultFormat();
+            // Logs written before UNDO and REDO were logged as the change they apply
+            case REDO -> editorManager.redo();
+            case REGEX_REPLACE -> editorManager.regexReplace(parsePosition(fields[1]), fields[2], fields[3]);
+            case REGEX_REPLACE_ALL -> editorManager.regexReplaceAll(fields[1], fields[2]);
+            case REPLACE -> editorManager.replace(parsePosition(fields[1]), fields[2], fields[3]);
+            case REPLACE_ALL -> editorManager.replaceAll(fields[1], fields[2]);
+            case UNDO -> editorManager.undo();
+            default -> throw new IllegalArgumentException("Unexpected logged command " + fields[0]);
+        }
+    }
+
+    private static Integer parsePosition(final String position) {
+        return position.isEmpty() ? null : Integer.valueOf(position);
+    }
+
+    /**
+     * Logs an applied change to the {@link WriteAheadLog}, if any, and takes a checkpoint when one is due.
+     *
+     * @param command   the {@link Command} which has been applied
+     * @param arguments the validated parameter and the payloads of the command, where null stands for an omitted one
+     */
+    private void logChange(final Command command, final Object... arguments) {
+        logRecord(command.name(), arguments);
+    }
 
+    /**
+     * Logs a change applied by UNDO or REDO as the plain change of the paragraphs it is: an added paragraph as ADD, a
+     * removed one as DEL and the replaced ranges of one or several paragraphs as a single record of all of them.
+     * A recovered session therefore applies the same change without depending on the changes kept to be undone.
+     *
+     * @param edit the change which has been applied
+     */
+    private void logEdit(final EditJournal.Edit edit) {
+        switch (edit.getKind()) {
+            case INSERT -> logChange(ADD, edit.getPosition() + 1, edit.getParagraph().getContent());
+            case REMOVE -> logChange(DEL, edit.getPosition() + 1);
+            default -> {
+                final List<EditJournal.Edit> replacements = edit.getKind() == EditJournal.Edit.Kind.REPLACE
+                        ? List.of(edit)
+                        : edit.getReplacements();
+                final Object[] arguments = new Object[replacements.size() * 4];
+                for (int i = 0; i < replacements.size(); i++) {
+                    final EditJournal.Edit replacement = replacements.get(i);
+                    arguments[i * 4] = replacement.getPosition() + 1;
+                    arguments[i * 4 + 1] = replacement.getOffset();
+                    arguments[i * 4 + 2] = replacement.getRemovedText();
+                    arguments[i * 4 + 3] = replacement.getInsertedText();
+                }
+                logRecord(REPLACE_RANGES_RECORD, arguments);
+            }
+        }
+    }
+
+    /**
+     * Logs a record to the {@link WriteAheadLog}, if any, and takes a checkpoint when one is due.
+     *
+     * @param name      the name of the record, i.e. of the applied {@link Command}
+     * @param arguments the fields following the name, where null stands for an omitted one
+     */
+    private void logRecord(final String name, final Object... arguments) {
+        if (writeAheadLog == null || loggingFailed) {
+            return;
+        }
+        final String[] fields = new String[arguments.length + 1];
+        fields[0] = name;
+        for (int i = 0; i < arguments.length; i++) {
+            fields[i + 1] = arguments[i] == null ? null : arguments[i].toString();
+        }
+        try {
+            writeAheadLog.append(fields);
+        } catch (UncheckedIOException e) {
+            stopLogging("The change could not be logged: " + e.getCause().getMessage());
+            return;
+        }
+        if (writeAheadLog.isCheckpointDue(editorManager.getParagraphSize())) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Saves a snapshot of the paragraphs together with the current format using the {@link WriteAheadLog}.
+     * The changes kept to be undone stay untouched, since undoing them is logged as a change of its own.
+     */
+    private void checkpoint() {
+        if (loggingFailed) {
+            return;
+        }
+        final Format format = formatManager.getSelectedFormat();
+        final String[] formatRecord = format.isRaw()
+                ? new String[]{FORMAT_RAW.name()}
+                : new String[]{FORMAT_FIX.name(), format.getFixedColumnWidth().toString()};
+        try {
+            writeAheadLog.checkpoint(editorManager.getParagraphs(), List.<String[]>of(formatRecord));
+        } catch (IOException | UncheckedIOException e) {
+            stopLogging("The snapshot could not be saved: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops logging the changes of the session after the given failure, since the log no longer matches the
+     * paragraphs the following changes are applied to.
+     *
+     * @param failureMessage the message describing the failure
+     */
+    private void stopLogging(final String failureMessage) {
+        loggingFailed = true;
+        console.printError(failureMessage + " No further changes are logged, the session can only be recovered up to"
+                + " the last change logged before.");
+    }
+
+    private void closeWriteAheadLog() {
+        if (writeAheadLog == null) {
+            return;
+        }
+        try {
+            writeAheadLog.close();
+        } catch (IOException e) {
+            console.printError("The write-ahead log could not be closed: " + e.getMessage());
+        }
     }
 
     /**
      * Uses {@link Console} class to print out an "Invalid input" error to the user.
+     * The help text is only added in interactive mode.
      */
     private void printInvalidInput() {
-        console.printError("Invalid command entered. Please enter a valid command with the correct number of parameters from the list below:");
-        console.printEmptyLine();
-        console.printLine(Command.getAllHelpTexts());
+        if (interactive) {
+            console.printError("Invalid command entered. Please enter a valid command with the correct number of parameters from the list below:");
+            console.printEmptyLine();
+            console.printLine(getHelpTexts());
+        } else {
+            console.printError("Invalid command entered.");
+        }
     }
 
-}
\ No newline at end of file
+}
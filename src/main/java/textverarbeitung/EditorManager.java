@@ -1,14 +1,51 @@
 package textverarbeitung;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import static textverarbeitung.CharacterClass.sanitize;
+import static textverarbeitung.TextConstants.BLANK;
 
 /**
  * EditorManager Class manages the {@link Paragraph}'s with addition and removal,
- * and indexing using the {@link IndexManager}.
+ * and indexing using the {@link IndexManager}, which is updated with every change.
+ * Every change is recorded in an {@link EditJournal}, so it can be undone and redone.
+ * <p>
+ * Searching and replacing in all paragraphs only looks at the candidate paragraphs taken from a {@link TrigramIndex},
+ * which is built upon the first use and kept up to date with every change from then on.
+ * <p>
+ * The paragraphs, the index and the journal are only changed and read while holding an internal lock. A replacement
+ * creates the changed copy of its paragraph before it takes the lock, so replacements of different paragraphs run
+ * in parallel and only exchange the paragraph under the lock. The callers still have to make sure that the positions
+ * they pass stay valid, i.e. with the locks of a {@link Document}.
+ * <p>
+ * Readers get a snapshot of the paragraphs in O(1) from the persistent {@link ParagraphTree}, which stays unchanged
+ * while it is rendered or saved, however long that takes.
  */
 public class EditorManager {
 
+    private static final long DEFAULT_JOURNAL_CAPACITY_BYTES = 16L << 20;
+    private static final int POSITION_LOOKUP_RATIO = 64;
+    private static final int PARALLEL_REPLACE_THRESHOLD = 4_096;
+    private static final int PATTERN_CACHE_CAPACITY = 64;
+    /**
+     * Compiled patterns do not depend on the paragraphs, so they are shared by all documents.
+     */
+    private static final PatternCache PATTERN_CACHE = new PatternCache(PATTERN_CACHE_CAPACITY);
+
     private static final String DUMMY_TEXT = "Morbi vel leo consequat, volutpat ante nec, mattis nulla. " +
             "Integer placerat fringilla ullamcorper. " +
             "Vestibulum ante ipsum primis in faucibus orci luctus et ultrices posuere cubilia curae; " +
@@ -20,36 +57,80 @@ public class EditorManager {
             "Vestibulum ante ipsum primis in faucibus orci luctus et ultrices posuere cubilia curae; " +
             "Vestibulum ante ipsum primis in faucibus orci luctus et ultrices posuere cubilia curae;";
 
-    private final List<Paragraph> paragraphs;
+    private final ParagraphTree paragraphs;
+    private final IndexManager indexManager;
+    private final EditJournal editJournal;
+    private final ReentrantLock changeLock;
+    private final int parallelReplaceThreshold;
+    private TrigramIndex searchIndex;
 
     /**
-     * Creates a new EditorManager.
-     * It initializes the {@link ArrayList} for {@link Paragraph} Objects
+     * Creates a new EditorManager with its own {@link IndexManager}.
+     * It initializes the {@link ParagraphTree} for {@link Paragraph} Objects
      */
     public EditorManager() {
-        paragraphs = new ArrayList<>();
+        this(new IndexManager());
+    }
+
+    /**
+     * Creates a new EditorManager.
+     * It initializes the {@link ParagraphTree} for {@link Paragraph} Objects and keeps the given {@link IndexManager}
+     * up to date with every change of the paragraphs. Up to 16 MiB of changes are kept to be undone.
+     *
+     * @param indexManager the {@link IndexManager} which indexes the paragraphs of this EditorManager
+     */
+    public EditorManager(final IndexManager indexManager) {
+        this(indexManager, DEFAULT_JOURNAL_CAPACITY_BYTES);
     }
 
     /**
-     * Method to add a {@link Paragraph} to {@link ArrayList}.
+     * Creates a new EditorManager.
+     * It initializes the {@link ParagraphTree} for {@link Paragraph} Objects and keeps the given {@link IndexManager}
+     * up to date with every change of the paragraphs.
+     *
+     * @param indexManager         the {@link IndexManager} which indexes the paragraphs of this EditorManager
+     * @param journalCapacityBytes the estimated number of bytes the changes kept to be undone may hold at most
+     */
+    public EditorManager(final IndexManager indexManager, final long journalCapacityBytes) {
+        paragraphs = new ParagraphTree();
+        this.indexManager = indexManager;
+        editJournal = new EditJournal(journalCapacityBytes);
+        changeLock = new ReentrantLock();
+        parallelReplaceThreshold = ForkJoinPool.getCommonPoolParallelism() > 1
+                ? PARALLEL_REPLACE_THRESHOLD
+                : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Method to add a {@link Paragraph} to the {@link ParagraphTree}.
      *
      * @param paragraphToAdd    Text of {@link Paragraph} as {@code String}.
      * @param paragraphPosition Validated {@code Integer} of position in paragraphList where {@link Paragraph} should be added.
      * @return Result message of the command as {@code String}
      */
     public String addParagraph(final String paragraphToAdd, Integer paragraphPosition) {
-        if (paragraphPosition == null) {
-            paragraphs.add(new Paragraph(paragraphToAdd));
-            paragraphPosition = paragraphs.size();
-        } else {
-            paragraphs.add(paragraphPosition - 1, new Paragraph(paragraphToAdd));
+        final Paragraph paragraph = new Paragraph(paragraphToAdd);
+        final int paragraphSize;
+        changeLock.lock();
+        try {
+            if (paragraphPosition == null) {
+                paragraphs.add(paragraph);
+                paragraphPosition = paragraphs.size();
+            } else {
+                paragraphs.add(paragraphPosition - 1, paragraph);
+            }
+            indexParagraph(paragraph);
+            editJournal.record(EditJournal.Edit.insert(paragraphPosition - 1, paragraph));
+            paragraphSize = paragraphs.size();
+        } finally {
+            changeLock.unlock();
         }
 
-        return "Paragraph was added at Position " + paragraphPosition + " of " + paragraphs.size();
+        return "Paragraph was added at Position " + paragraphPosition + " of " + paragraphSize;
     }
 
     /**
-     * Method to add a {@link Paragraph} with dummy text as Content to {@link ArrayList}.
+     * Method to add a {@link Paragraph} with dummy text as Content to the {@link ParagraphTree}.
      *
      * @param paragraphPosition Validated {@code Integer} of position in paragraphList where {@link Paragraph} should be added.
      * @return Result Text as {@code String}
@@ -61,6 +142,8 @@ public class EditorManager {
     /**
      * Method to replace a {@link String} with another {@link String} in a {@link Paragraph}.
      * Validates the search- and replace text before passing it on to {@link Paragraph} for execution.
+     * The changed copy of the paragraph is created without holding the internal lock, which is only taken to exchange
+     * the paragraph, so concurrent callers must not replace within the same paragraph at the same time.
      *
      * @param paragraphPosition Validated {@code Integer} of position in paragraphList where {@code toSearch} should be replaced
      * @param toSearch          {@code String} of Characters that are being replaced
@@ -76,14 +159,224 @@ public class EditorManager {
         } else if (paragraphs.isEmpty()) {
             return "No Paragraphs were found to replace anything in.";
         } else {
-            return paragraphs.get(paragraphPosition - 1).searchReplaceParagraphContent(toSearch, toReplaceWith, paragraphPosition);
+            final String sanitizedSearch = sanitize(toSearch);
+            final String sanitizedReplacement = sanitize(toReplaceWith);
+            if (sanitizedSearch.isEmpty()) {
+                return Paragraph.NOTHING_REPLACED_MESSAGE;
+            }
+            final int position = paragraphPosition - 1;
+            final Paragraph paragraph = paragraphs.get(position);
+            final Paragraph replacedParagraph = paragraph.withReplacement(new TextMatcher(sanitizedSearch),
+                    sanitizedReplacement);
+            if (replacedParagraph == null) {
+                return Paragraph.NOTHING_REPLACED_MESSAGE;
+            }
+            exchangeReplacedParagraph(position, paragraph, replacedParagraph);
+            return Paragraph.replacedMessage(sanitizedSearch, sanitizedReplacement, paragraphPosition);
         }
     }
 
+    /**
+     * Method to replace the matches of a regular expression in a {@link Paragraph}, like
+     * {@link java.util.regex.Matcher#replaceAll(String)}: the replacement can refer to the groups captured by a match,
+     * i.e. with {@code $1} or {@code ${name}}. The expression is not sanitized, but the replaced content is, like
+     * every content of a paragraph. The compiled expression is taken from a {@link PatternCache}.
+     * The changed copy of the paragraph is created without holding the internal lock, as with {@link #replace}.
+     *
+     * @param paragraphPosition Validated {@code Integer} of position in paragraphList where the matches should be replaced
+     * @param expression        the regular expression whose matches are being replaced
+     * @param replacement       the replacement of every match, which may be empty to remove the matches
+     * @return Result Text as {@code String} of what was done.
+     * @throws IllegalArgumentException if the expression is invalid or the replacement refers to a missing group
+     */
+    public String regexReplace(Integer paragraphPosition, final String expression, final String replacement) {
+        if (paragraphPosition == null) {
+            paragraphPosition = paragraphs.size();
+        }
+        if (expression == null || replacement == null || expression.isEmpty()) {
+            return "You cannot search for an empty regular expression.";
+        } else if (paragraphs.isEmpty()) {
+            return "No Paragraphs were found to replace anything in.";
+        }
+        final Pattern pattern = PATTERN_CACHE.get(expression);
+        final int position = paragraphPosition - 1;
+        final Paragraph paragraph = paragraphs.get(position);
+        final TextMatcher.Replacement replaced = replaceMatches(pattern, paragraph.getContent(), replacement);
+        if (replaced == null) {
+            return Paragraph.NOTHING_REPLACED_MESSAGE;
+        }
+        exchangeReplacedParagraph(position, paragraph, new Paragraph(replaced.getText()));
+        return "Matches of " + expression + " have been replaced with " + replacement + " in paragraph Nr. "
+                + paragraphPosition + ".";
+    }
+
+    /**
+     * Method to replace a {@link String} with another {@link String} in all {@link Paragraph}s at once.
+     * Only the candidate paragraphs which can contain the search text are looked at, each with the same
+     * {@link TextMatcher}. Their changed copies are created in parallel chunks for many candidates, and only the
+     * paragraphs which have actually changed are exchanged and indexed again. All replacements are recorded as one
+     * change, which is undone and redone as a whole.
+     * The internal lock is held throughout, so all paragraphs are replaced as of the same state.
+     *
+     * @param toSearch      {@code String} of Characters that are being replaced
+     * @param toReplaceWith {@code String} of Characters that will be newly inserted
+     * @return Result Text as {@code String} of what was done.
+     */
+    public String replaceAll(final String toSearch, final String toReplaceWith) {
+        if (toSearch == null || toReplaceWith == null || toSearch.trim().isBlank() || toReplaceWith.trim().isBlank()) {
+            return "You cannot search or replace blanks or spaces.";
+        }
+        final String sanitizedSearch = sanitize(toSearch);
+        final String sanitizedReplacement = sanitize(toReplaceWith);
+        if (sanitizedSearch.isEmpty()) {
+            return Paragraph.NOTHING_REPLACED_MESSAGE;
+        }
+        final TextMatcher matcher = new TextMatcher(sanitizedSearch);
+        return replaceInAllParagraphs(sanitizedSearch, content -> matcher.replaceIn(content, sanitizedReplacement),
+                "Characters " + sanitizedSearch + " have been replaced with " + sanitizedReplacement);
+    }
+
+    /**
+     * Method to replace the matches of a regular expression in all {@link Paragraph}s at once, as with
+     * {@link #regexReplace} for a single paragraph. The trigram index cannot narrow down the paragraphs an expression
+     * matches, so all paragraphs are looked at, in parallel chunks for many of them. All replacements are recorded as
+     * one change, which is undone and redone as a whole.
+     *
+     * @param expression  the regular expression whose matches are being replaced
+     * @param replacement the replacement of every match, which may be empty to remove the matches
+     * @return Result Text as {@code String} of what was done.
+     * @throws IllegalArgumentException if the expression is invalid or the replacement refers to a missing group
+     */
+    public String regexReplaceAll(final String expression, final String replacement) {
+        if (expression == null || replacement == null || expression.isEmpty()) {
+            return "You cannot search for an empty regular expression.";
+        }
+        final Pattern pattern = PATTERN_CACHE.get(expression);
+        return replaceInAllParagraphs(null, content -> replaceMatches(pattern, content, replacement),
+                "Matches of " + expression + " have been replaced with " + replacement);
+    }
+
+    /**
+     * Replaces within the candidate paragraphs which can contain the given search text, holding the internal lock
+     * throughout, and records all replacements as one change.
+     *
+     * @param sanitizedSearch the text the candidates have to contain, or null to replace within all paragraphs
+     * @param replacer        replaces within the content of a paragraph and returns null if there is nothing to replace
+     * @param description     the beginning of the result message
+     * @return Result Text as {@code String} of what was done.
+     */
+    private String replaceInAllParagraphs(final String sanitizedSearch,
+                                          final Function<String, TextMatcher.Replacement> replacer,
+                                          final String description) {
+        changeLock.lock();
+        try {
+            if (paragraphs.isEmpty()) {
+                return "No Paragraphs were found to replace anything in.";
+            }
+            final Set<Paragraph> candidates = sanitizedSearch == null ? null : findSearchCandidates(sanitizedSearch);
+            final List<Paragraph> candidateParagraphs = new ArrayList<>();
+            final List<Integer> candidateNumbers = new ArrayList<>();
+            forEachCandidate(candidates, lookUpCandidatePositions(candidates), paragraphs, (paragraph, number) -> {
+                candidateParagraphs.add(paragraph);
+                candidateNumbers.add(number);
+            });
+
+            final int candidateCount = candidateParagraphs.size();
+            final Paragraph[] replacedParagraphs = new Paragraph[candidateCount];
+            final int[] replacementCounts = new int[candidateCount];
+            final IntStream candidateIndices = IntStream.range(0, candidateCount);
+            (candidateCount >= parallelReplaceThreshold ? candidateIndices.parallel() : candidateIndices).forEach(i -> {
+                final TextMatcher.Replacement replacement = replacer.apply(candidateParagraphs.get(i).getContent());
+                if (replacement != null) {
+                    replacedParagraphs[i] = new Paragraph(replacement.getText());
+                    replacementCounts[i] = replacement.getCount();
+                }
+            });
+
+            final List<EditJournal.Edit> edits = new ArrayList<>();
+            int replacedParagraphCount = 0;
+            int replacementCount = 0;
+            for (int i = 0; i < candidateCount; i++) {
+                if (replacedParagraphs[i] == null) {
+                    continue;
+                }
+                replacedParagraphCount++;
+                replacementCount += replacementCounts[i];
+                final String contentBefore = candidateParagraphs.get(i).getContent();
+                final String contentAfter = replacedParagraphs[i].getContent();
+                if (!contentBefore.equals(contentAfter)) {
+                    final int position = candidateNumbers.get(i) - 1;
+                    exchangeParagraph(position, replacedParagraphs[i]);
+                    edits.add(EditJournal.Edit.replace(position, contentBefore, contentAfter));
+                }
+            }
+            if (replacedParagraphCount == 0) {
+                return Paragraph.NOTHING_REPLACED_MESSAGE;
+            }
+            if (!edits.isEmpty()) {
+                editJournal.record(EditJournal.Edit.replaceAll(edits));
+            }
+            return description + " " + replacementCount + " times in " + replacedParagraphCount + " paragraphs.";
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    /**
+     * Replaces all matches of the given pattern in the given content with the given replacement, which can refer to
+     * the captured groups.
+     *
+     * @return the replaced content with the number of matches, or null if the pattern does not match
+     * @throws IllegalArgumentException if the replacement refers to a missing group
+     */
+    private static TextMatcher.Replacement replaceMatches(final Pattern pattern, final String content,
+                                                          final String replacement) {
+        final Matcher matcher = pattern.matcher(content);
+        if (!matcher.find()) {
+            return null;
+        }
+        final StringBuilder replacedContent = new StringBuilder(content.length());
+        int count = 0;
+        try {
+            do {
+                matcher.appendReplacement(replacedContent, replacement);
+                count++;
+            } while (matcher.find());
+        } catch (IndexOutOfBoundsException e) {
+            // Thrown for a reference to a group the expression does not have
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        return new TextMatcher.Replacement(matcher.appendTail(replacedContent).toString(), count);
+    }
+
+    /**
+     * Method to replace all {@link Paragraph}s at once, i.e. with the paragraphs of a loaded file.
+     * The {@link ParagraphTree} is built from the given paragraphs in one go and the index is rebuilt.
+     * The previous changes can no longer be undone.
+     *
+     * @param paragraphsToLoad the {@link Paragraph}s replacing the current ones in order
+     * @return Result Text as {@code String}
+     */
+    public String loadParagraphs(final List<Paragraph> paragraphsToLoad) {
+        changeLock.lock();
+        try {
+            paragraphs.clear();
+            paragraphs.addAll(paragraphsToLoad);
+            indexManager.clear();
+            indexManager.addParagraphs(paragraphsToLoad);
+            // The trigram index is only rebuilt upon the next search
+            searchIndex = null;
+            editJournal.clear();
+        } finally {
+            changeLock.unlock();
+        }
+        return paragraphsToLoad.size() + " Paragraphs were loaded";
+    }
+
     /**
      * {@link Paragraph} List used for Validation purposes.
      *
-     * @return size of the {@code ArrayList} of all {@link Paragraph} Elements.
+     * @return size of the {@link ParagraphTree} of all {@link Paragraph} Elements.
      */
     public int getParagraphSize() {
         return paragraphs.size();
@@ -102,12 +395,368 @@ public class EditorManager {
         if (paragraphPosition == null) {
             paragraphPosition = paragraphs.size();
         }
-        paragraphs.remove(paragraphPosition - 1);
+        changeLock.lock();
+        try {
+            final Paragraph paragraph = paragraphs.remove(paragraphPosition - 1);
+            unindexParagraph(paragraph);
+            editJournal.record(EditJournal.Edit.remove(paragraphPosition - 1, paragraph));
+        } finally {
+            changeLock.unlock();
+        }
         return "Paragraph Nr. " + paragraphPosition + " was removed";
     }
 
+    /**
+     * Applies the given edit as a new change, i.e. one which has been logged when a change was undone or redone.
+     * Every replaced range is checked against the current content first.
+     *
+     * @param edit the change to apply, with 0-based positions
+     * @throws IllegalArgumentException if the paragraphs do not match the edit
+     */
+    void applyEdit(final EditJournal.Edit edit) {
+        changeLock.lock();
+        try {
+            final List<EditJournal.Edit> replacements = switch (edit.getKind()) {
+                case REPLACE -> List.of(edit);
+                case REPLACE_ALL -> edit.getReplacements();
+                default -> List.of();
+            };
+            for (EditJournal.Edit replacement : replacements) {
+                if (replacement.getPosition() >= paragraphs.size() || !paragraphs.get(replacement.getPosition())
+                        .getContent().startsWith(replacement.getRemovedText(), replacement.getOffset())) {
+                    throw new IllegalArgumentException("The replaced text does not match paragraph Nr. "
+                            + (replacement.getPosition() + 1) + ".");
+                }
+            }
+            apply(edit);
+            editJournal.record(edit);
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    /**
+     * Method to undo the last change of the {@link Paragraph}s by applying its inverse.
+     * The index is updated with the affected paragraph only.
+     *
+     * @return Result Text as {@code String} of what was undone.
+     */
+    public String undo() {
+        return undo(edit -> {
+        });
+    }
+
+    /**
+     * Method to undo the last change of the {@link Paragraph}s by applying its inverse.
+     * The index is updated with the affected paragraph only.
+     *
+     * @param appliedEdit receives the change applied to undo the last one, i.e. its inverse, under the internal lock,
+     *                    unless there is nothing to undo
+     * @return Result Text as {@code String} of what was undone.
+     */
+    String undo(final Consumer<EditJournal.Edit> appliedEdit) {
+        final EditJournal.Edit edit;
+        changeLock.lock();
+        try {
+            edit = editJournal.undo();
+            if (edit == null) {
+                return "There is nothing to undo.";
+            }
+            final EditJournal.Edit inverseEdit = edit.inverse();
+            apply(inverseEdit);
+            appliedEdit.accept(inverseEdit);
+        } finally {
+            changeLock.unlock();
+        }
+        return "The last change " + describeParagraphsOf(edit) + " was undone.";
+    }
+
+    /**
+     * Method to redo the last undone change of the {@link Paragraph}s.
+     * The index is updated with the affected paragraph only.
+     *
+     * @return Result Text as {@code String} of what was redone.
+     */
+    public String redo() {
+        return redo(edit -> {
+        });
+    }
+
+    /**
+     * Method to redo the last undone change of the {@link Paragraph}s.
+     * The index is updated with the affected paragraph only.
+     *
+     * @param appliedEdit receives the redone change under the internal lock, unless there is nothing to redo
+     * @return Result Text as {@code String} of what was redone.
+     */
+    String redo(final Consumer<EditJournal.Edit> appliedEdit) {
+        final EditJournal.Edit edit;
+        changeLock.lock();
+        try {
+            edit = editJournal.redo();
+            if (edit == null) {
+                return "There is nothing to redo.";
+            }
+            apply(edit);
+            appliedEdit.accept(edit);
+        } finally {
+            changeLock.unlock();
+        }
+        return "The last undone change " + describeParagraphsOf(edit) + " was redone.";
+    }
+
+    private static String describeParagraphsOf(final EditJournal.Edit edit) {
+        return edit.getKind() == EditJournal.Edit.Kind.REPLACE_ALL
+                ? "in " + edit.getReplacements().size() + " paragraphs"
+                : "of paragraph Nr. " + (edit.getPosition() + 1);
+    }
+
+    /**
+     * Exchanges the paragraph at the given position with its replaced copy under the internal lock and records the
+     * replacement, unless the content has stayed the same.
+     */
+    private void exchangeReplacedParagraph(final int position, final Paragraph paragraph,
+                                           final Paragraph replacedParagraph) {
+        final EditJournal.Edit edit = paragraph.getContent().equals(replacedParagraph.getContent())
+                ? null
+                : EditJournal.Edit.replace(position, paragraph.getContent(), replacedParagraph.getContent());
+        changeLock.lock();
+        try {
+            exchangeParagraph(position, replacedParagraph);
+            if (edit != null) {
+                editJournal.record(edit);
+            }
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    /**
+     * Applies the given edit to the paragraphs and the indices, without recording it.
+     */
+    private void apply(final EditJournal.Edit edit) {
+        switch (edit.getKind()) {
+            case INSERT -> {
+                paragraphs.add(edit.getPosition(), edit.getParagraph());
+                indexParagraph(edit.getParagraph());
+            }
+            case REMOVE -> unindexParagraph(paragraphs.remove(edit.getPosition()));
+            case REPLACE -> applyReplacement(edit);
+            default -> edit.getReplacements().forEach(this::applyReplacement);
+        }
+    }
+
+    private void applyReplacement(final EditJournal.Edit edit) {
+        replaceContentRange(edit.getPosition(), edit.getOffset(), edit.getRemovedText(), edit.getInsertedText());
+    }
+
+    /**
+     * Replaces the current text at the given offset within the paragraph at the given position with the given text.
+     */
+    private void replaceContentRange(final int position, final int offset, final String currentText,
+                                     final String replacement) {
+        exchangeParagraph(position, paragraphs.get(position).withContentRange(offset, offset + currentText.length(),
+                replacement));
+    }
+
+    /**
+     * Exchanges the paragraph at the given position with its changed copy, in the index as well.
+     */
+    private void exchangeParagraph(final int position, final Paragraph replacedParagraph) {
+        unindexParagraph(paragraphs.set(position, replacedParagraph));
+        indexParagraph(replacedParagraph);
+    }
+
+    private void indexParagraph(final Paragraph paragraph) {
+        indexManager.addParagraph(paragraph);
+        if (searchIndex != null) {
+            searchIndex.addParagraph(paragraph);
+        }
+    }
+
+    private void unindexParagraph(final Paragraph paragraph) {
+        indexManager.removeParagraph(paragraph);
+        if (searchIndex != null) {
+            searchIndex.removeParagraph(paragraph);
+        }
+    }
+
+    /**
+     * Method to find all occurrences of a text in all {@link Paragraph}s.
+     * The positions of the candidate paragraphs are looked up under the internal lock, if there are only a few of
+     * them, together with a snapshot of the paragraphs. The candidates are searched afterwards, while the paragraphs
+     * can be changed further.
+     *
+     * @param toSearch {@code String} of Characters to search for
+     * @return Result Text as {@code String} listing the numbers of the paragraphs and the offsets of the occurrences.
+     */
+    public String search(final String toSearch) {
+        final String sanitizedSearch = toSearch == null ? BLANK : sanitize(toSearch);
+        if (sanitizedSearch.isBlank()) {
+            return "You cannot search for blanks or spaces.";
+        }
+        final Set<Paragraph> candidates;
+        final int[] candidatePositions;
+        final List<Paragraph> snapshot;
+        changeLock.lock();
+        try {
+            candidates = findSearchCandidates(sanitizedSearch);
+            candidatePositions = lookUpCandidatePositions(candidates);
+            snapshot = paragraphs.snapshot();
+        } finally {
+            changeLock.unlock();
+        }
+        final SearchResult searchResult = new SearchResult(new TextMatcher(sanitizedSearch));
+        forEachCandidate(candidates, candidatePositions, snapshot, searchResult::searchParagraph);
+        return searchResult.toString();
+    }
+
+    /**
+     * Returns the paragraphs which can contain the given text, building the {@link TrigramIndex} if there is none yet.
+     * Must be called while holding the internal lock.
+     *
+     * @param sanitizedSearch the sanitized text to search for
+     * @return the candidate paragraphs, or null if the text is too short to narrow them down
+     */
+    private Set<Paragraph> findSearchCandidates(final String sanitizedSearch) {
+        if (searchIndex == null) {
+            searchIndex = new TrigramIndex();
+            searchIndex.addParagraphs(paragraphs);
+        }
+        return searchIndex.findCandidates(sanitizedSearch);
+    }
+
+    /**
+     * Looks up the positions (0-based) of the given candidates in O(log n) each, as long as there are only a few of
+     * them. Must be called while holding the internal lock.
+     *
+     * @param candidates the candidate paragraphs, or null for all paragraphs
+     * @return the positions of the candidates in ascending order, or null if all paragraphs are to be numbered instead
+     */
+    private int[] lookUpCandidatePositions(final Set<Paragraph> candidates) {
+        if (candidates == null || (long) candidates.size() * POSITION_LOOKUP_RATIO > paragraphs.size()) {
+            return null;
+        }
+        final int[] candidatePositions = new int[candidates.size()];
+        int i = 0;
+        for (Paragraph candidate : candidates) {
+            candidatePositions[i] = paragraphs.indexOf(candidate);
+            if (candidatePositions[i++] < 0) {
+                // Not expected, but numbering all paragraphs is always correct
+                return null;
+            }
+        }
+        Arrays.sort(candidatePositions);
+        return candidatePositions;
+    }
+
+    /**
+     * Passes every candidate paragraph with its number (1-based) to the given consumer in document order.
+     *
+     * @param candidates         the candidate paragraphs, or null for all paragraphs
+     * @param candidatePositions the looked up positions of the candidates, or null to number all paragraphs
+     * @param paragraphList      the paragraphs the candidates are taken from
+     * @param consumer           receives the candidates and their numbers
+     */
+    private static void forEachCandidate(final Set<Paragraph> candidates, final int[] candidatePositions,
+                                         final List<Paragraph> paragraphList,
+                                         final ObjIntConsumer<Paragraph> consumer) {
+        if (candidatePositions != null) {
+            for (int position : candidatePositions) {
+                consumer.accept(paragraphList.get(position), position + 1);
+            }
+            return;
+        }
+        int remainingCandidates = candidates == null ? paragraphList.size() : candidates.size();
+        int paragraphNumber = 0;
+        final Iterator<Paragraph> iterator = paragraphList.iterator();
+        while (remainingCandidates > 0) {
+            final Paragraph paragraph = iterator.next();
+            paragraphNumber++;
+            if (candidates == null || candidates.contains(paragraph)) {
+                remainingCandidates--;
+                consumer.accept(paragraph, paragraphNumber);
+            }
+        }
+    }
+
+    /**
+     * Reads the indices of the frequent words from the index, numbering the paragraphs by their current position.
+     * The frequent words are collected under the internal lock, and the positions of the paragraphs containing them
+     * are looked up in the {@link ParagraphTree} in O(log n) each, so no other paragraph is visited. The sets of
+     * numbers are built afterwards, while the paragraphs can be changed further.
+     *
+     * @return Index in {@code String} format
+     */
+    public String getIndicesInPrintFormat() {
+        final Map<String, Paragraph[]> frequentWords;
+        final Map<Paragraph, Integer> paragraphNumbers;
+        final List<Paragraph> snapshot;
+        changeLock.lock();
+        try {
+            frequentWords = indexManager.collectFrequentWords();
+            paragraphNumbers = IndexManager.lookUpParagraphNumbers(frequentWords, paragraphs::indexOf);
+            snapshot = paragraphNumbers == null ? paragraphs.snapshot() : null;
+        } finally {
+            changeLock.unlock();
+        }
+        // Not expected, but numbering by the snapshot of all paragraphs is always correct
+        final Map<String, Set<Integer>> indices = paragraphNumbers == null
+                ? IndexManager.numberParagraphs(frequentWords, snapshot, new HashMap<>())
+                : IndexManager.numberParagraphs(frequentWords, paragraphNumbers, new HashMap<>());
+        return IndexManager.transformIndicesToPrintFormat(indices);
+    }
+
+    /**
+     * Returns an unmodifiable snapshot of the current {@link Paragraph}s in O(1), which can be read while the
+     * paragraphs are changed further. Since a paragraph is never changed once it has been added, the snapshot is
+     * consistent as a whole.
+     *
+     * @return the current paragraphs in order
+     */
     public List<Paragraph> getParagraphs() {
-        return paragraphs;
+        return paragraphs.snapshot();
+    }
+
+    /**
+     * Collects the occurrences of a text in the paragraphs searched in document order.
+     */
+    private static final class SearchResult {
+
+        private final TextMatcher matcher;
+        private final StringBuilder occurrences = new StringBuilder();
+        private int occurrenceCount;
+        private int paragraphCount;
+
+        private SearchResult(final TextMatcher matcher) {
+            this.matcher = matcher;
+        }
+
+        private void searchParagraph(final Paragraph paragraph, final int paragraphNumber) {
+            final String content = paragraph.getContent();
+            int offset = matcher.indexIn(content, 0);
+            if (offset < 0) {
+                return;
+            }
+            paragraphCount++;
+            occurrences.append(System.lineSeparator()).append("Paragraph Nr. ").append(paragraphNumber)
+                    .append(" at offset ").append(offset);
+            occurrenceCount++;
+            while ((offset = matcher.indexIn(content, offset + 1)) >= 0) {
+                occurrences.append(", ").append(offset);
+                occurrenceCount++;
+            }
+        }
+
+        @Override
+        public String toString() {
+            if (occurrenceCount == 0) {
+                return "Characters " + matcher.getPattern() + " could not be found.";
+            }
+            return "Characters " + matcher.getPattern() + " were found " + occurrenceCount + " times in "
+                    + paragraphCount + " paragraphs:" + occurrences;
+        }
+
     }
 
 }
@@ -0,0 +1,128 @@
+package textverarbeitung;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Server offering the commands of the {@link Editor} to many concurrent sessions over TCP connections on the loopback
+ * interface.
+ * <p>
+ * Every connection gets a session of its own, i.e. an {@link Editor} with a {@link Console} reading from and writing
+ * to the socket, which runs on a thread of its own. Where the runtime offers virtual threads, one is started per
+ * session, so thousands of mostly idle sessions only cost a few kilobytes each; otherwise the sessions run on a cached
+ * thread pool. The sessions share the {@link Document}s they open by name through one {@link DocumentRegistry}.
+ * <p>
+ * If connections cannot be accepted, i.e. because the process has run out of file descriptors, the server waits
+ * before it tries again, doubling the wait up to a second, instead of spinning until sessions have ended.
+ */
+public class EditorServer implements Closeable {
+
+    private static final int CONNECTION_BACKLOG = 1024;
+    private static final long MIN_ACCEPT_BACKOFF_MILLIS = 10;
+    private static final long MAX_ACCEPT_BACKOFF_MILLIS = 1_000;
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService sessionExecutor;
+    private final DocumentRegistry documentRegistry;
+    private final Set<Socket> connections;
+    private final Console console;
+
+    /**
+     * Creates a new EditorServer listening on the given port of the loopback interface.
+     *
+     * @param port the port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public EditorServer(final int port) throws IOException {
+        serverSocket = new ServerSocket(port, CONNECTION_BACKLOG, InetAddress.getLoopbackAddress());
+        sessionExecutor = newSessionExecutor();
+        documentRegistry = new DocumentRegistry();
+        connections = ConcurrentHashMap.newKeySet();
+        console = new Console();
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return the local port of the server socket
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts connections and starts a session for each of them until the server is closed or the accepting thread is
+     * interrupted.
+     */
+    public void serve() {
+        long backoffMillis = 0;
+        while (!serverSocket.isClosed()) {
+            final Socket connection;
+            try {
+                connection = serverSocket.accept();
+            } catch (IOException e) {
+                if (serverSocket.isClosed()) {
+                    return;
+                }
+                backoffMillis = Math.min(Math.max(MIN_ACCEPT_BACKOFF_MILLIS, backoffMillis * 2),
+                        MAX_ACCEPT_BACKOFF_MILLIS);
+                console.printError("A connection could not be accepted, retrying in " + backoffMillis + " ms: "
+                        + e.getMessage());
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                continue;
+            }
+            backoffMillis = 0;
+            connections.add(connection);
+            sessionExecutor.execute(() -> runSession(connection));
+        }
+    }
+
+    /**
+     * Stops accepting connections and closes the connections of all running sessions, which ends them.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (final Socket connection : connections) {
+            connection.close();
+        }
+        sessionExecutor.shutdown();
+    }
+
+    private void runSession(final Socket connection) {
+        try (connection) {
+            new Editor(new Console(connection.getInputStream(), connection.getOutputStream(), OutputMode.INTERACTIVE),
+                    documentRegistry).run();
+        } catch (IOException | UncheckedIOException e) {
+            // The connection has been lost, which only ends this session
+        } finally {
+            connections.remove(connection);
+        }
+    }
+
+    /**
+     * Creates an executor starting a virtual thread per session if the runtime supports them, which is looked up
+     * reflectively to still run on runtimes without them.
+     */
+    private static ExecutorService newSessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+}
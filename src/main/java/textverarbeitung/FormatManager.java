@@ -1,25 +1,60 @@
 package textverarbeitung;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
 
 import static java.lang.Math.min;
-import static java.lang.String.valueOf;
 import static java.lang.System.lineSeparator;
 import static textverarbeitung.TextConstants.BLANK;
-import static textverarbeitung.TextConstants.WHITESPACE;
 
 /**
  * Manages the formatting of the {@link Paragraph}. It handles the setting of the selected {@link Format} and the
  * printing.
+ * <p>
+ * The line breaks of paragraphs printed with a fixed column width are kept in a {@link LineBreakCache}, so printing a
+ * mostly unchanged document again only has to wrap the paragraphs which have changed since.
+ * <p>
+ * Large documents are printed with a fixed column width in parallel: chunks of paragraphs are wrapped and rendered on
+ * the common {@link ForkJoinPool}, while the rendered chunks are written to the output in order as soon as they are
+ * complete. Only a bounded number of chunks is rendered ahead of the output.
  */
 public class FormatManager {
 
+    private static final int DEFAULT_PARALLEL_THRESHOLD = 10_000;
+    private static final int CHUNK_SIZE = 1_024;
+    private static final int CHUNKS_AHEAD_PER_THREAD = 2;
+    private static final int LINE_BREAK_CACHE_CAPACITY = 1 << 18;
+    private static final String FORCED_LINE_BREAK = "-";
+    private static final char WHITESPACE_CHARACTER = ' ';
+
+    private final LineBreakCache lineBreakCache = new LineBreakCache(LINE_BREAK_CACHE_CAPACITY);
+    private final int parallelThreshold;
     private Format selectedFormat;
 
     /**
-     * Constructs a new FormatManager object. It also sets the default selected {@link Format}.
+     * Constructs a new FormatManager object which prints more than 10'000 paragraphs with a fixed column width in
+     * parallel, unless there is only a single processor to render on. It also sets the default selected
+     * {@link Format}.
      */
     public FormatManager() {
+        this(ForkJoinPool.getCommonPoolParallelism() > 1 ? DEFAULT_PARALLEL_THRESHOLD : Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructs a new FormatManager object. It also sets the default selected {@link Format}.
+     *
+     * @param parallelThreshold the number of paragraphs from which on they are printed with a fixed column width in
+     *                          parallel
+     */
+    public FormatManager(final int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
         setDefaultFormat();
     }
 
@@ -55,83 +90,237 @@ public class FormatManager {
      * @return the printed {@link Paragraph} in the selected {@link Format} as a {@link String}
      */
     public String transformParagraphsToSelectedFormat(final List<Paragraph> paragraphs) {
+        final StringBuilder stringBuilder = new StringBuilder();
+        try {
+            writeParagraphsInSelectedFormat(paragraphs, stringBuilder);
+        } catch (IOException e) {
+            // A StringBuilder never throws an IOException
+            throw new UncheckedIOException(e);
+        }
+        return stringBuilder.toString();
+    }
+
+    /**
+     * Writes the given paragraphs in the selected {@link Format} to the given sink.
+     * The output is streamed paragraph by paragraph (and line by line for a fixed column width), so no copy of the
+     * whole document is held in memory. The content of the paragraphs is appended as ranges without substrings.
+     *
+     * @param paragraphs the {@link Paragraph} objects to print.
+     * @param sink       the {@link Appendable} to write the output to
+     * @throws IOException if the sink cannot be written to
+     */
+    public void writeParagraphsInSelectedFormat(final List<Paragraph> paragraphs, final Appendable sink)
+            throws IOException {
         if (paragraphs.isEmpty()) {
-            return "No paragraphs found to print.";
+            sink.append("No paragraphs found to print.");
+        } else if (selectedFormat.isRaw()) {
+            writeRawFormat(paragraphs, sink);
+        } else if (paragraphs.size() >= parallelThreshold) {
+            writeFixedLengthFormatInParallel(paragraphs, sink);
+        } else {
+            writeFixedLengthFormat(paragraphs, sink);
         }
-        return selectedFormat.isRaw()
-                ? transformToRawFormat(paragraphs)
-                : transformToFixedLengthFormat(paragraphs);
     }
 
-    private String transformToRawFormat(final List<Paragraph> paragraphs) {
-        final StringBuilder stringBuilder = new StringBuilder(paragraphs.size());
-        for (int i = 0; i < paragraphs.size(); i++) {
-            stringBuilder.append(i + 1)
+    private void writeRawFormat(final List<Paragraph> paragraphs, final Appendable sink) throws IOException {
+        int i = 0;
+        for (Paragraph paragraph : paragraphs) {
+            sink.append(Integer.toString(i + 1))
                     .append(": ")
-                    .append(paragraphs.get(i).getContent())
+                    .append(paragraph.getContent())
                     .append(insertLineBreakIfApplicable(paragraphs.size(), i));
+            i++;
+        }
+    }
+
+    private void writeFixedLengthFormat(final List<Paragraph> paragraphs, final Appendable sink) throws IOException {
+        final int fixedColumnWidth = selectedFormat.getFixedColumnWidth();
+        int i = 0;
+        for (Paragraph paragraph : paragraphs) {
+            int[] lineEnds = lineBreakCache.get(paragraph, fixedColumnWidth);
+            if (lineEnds == null) {
+                lineEnds = calculateLineEnds(paragraph.getContent(), fixedColumnWidth);
+                lineBreakCache.put(paragraph, fixedColumnWidth, lineEnds);
+            }
+            writeParagraphInFixedLengthFormat(paragraph.getContent(), lineEnds, sink);
+            sink.append(insertLineBreakIfApplicable(paragraphs.size(), i));
+            i++;
+        }
+    }
+
+    /**
+     * Renders chunks of the paragraphs in parallel and writes them in order. The cache is only accessed by the calling
+     * thread: the cached line ends of a chunk are looked up before it is submitted and the calculated ones are stored
+     * after it has been written.
+     */
+    private void writeFixedLengthFormatInParallel(final List<Paragraph> paragraphs, final Appendable sink)
+            throws IOException {
+        final int fixedColumnWidth = selectedFormat.getFixedColumnWidth();
+        final Paragraph[] paragraphArray = paragraphs.toArray(new Paragraph[0]);
+        final ForkJoinPool pool = ForkJoinPool.commonPool();
+        final int maxChunksAhead = pool.getParallelism() * CHUNKS_AHEAD_PER_THREAD;
+        final Deque<RenderedChunk> pendingChunks = new ArrayDeque<>();
+        try {
+            int chunkStart = 0;
+            while (chunkStart < paragraphArray.length || !pendingChunks.isEmpty()) {
+                if (chunkStart < paragraphArray.length && pendingChunks.size() < maxChunksAhead) {
+                    final int chunkEnd = min(chunkStart + CHUNK_SIZE, paragraphArray.length);
+                    pendingChunks.add(new RenderedChunk(paragraphArray, chunkStart, chunkEnd, fixedColumnWidth, pool));
+                    chunkStart = chunkEnd;
+                } else {
+                    final RenderedChunk chunk = pendingChunks.poll();
+                    sink.append(chunk.join());
+                    chunk.cacheCalculatedLineEnds();
+                }
+            }
+        } finally {
+            for (RenderedChunk chunk : pendingChunks) {
+                chunk.text.cancel(false);
+            }
         }
-        return stringBuilder.toString();
     }
 
-    private String transformToFixedLengthFormat(final List<Paragraph> paragraphs) {
+    private static String renderChunk(final Paragraph[] paragraphs, final int start, final int[][] lineEnds,
+                                      final int fixedColumnWidth) {
         final StringBuilder stringBuilder = new StringBuilder();
-        for (int i = 0; i < paragraphs.size(); i++) {
-            Paragraph paragraph = paragraphs.get(i);
-            stringBuilder.append(transformParagraphToFixedLengthFormat(paragraph.getContent()))
-                    .append(insertLineBreakIfApplicable(paragraphs.size(), i));
+        try {
+            for (int i = 0; i < lineEnds.length; i++) {
+                final String paragraphText = paragraphs[start + i].getContent();
+                if (lineEnds[i] == null) {
+                    lineEnds[i] = calculateLineEnds(paragraphText, fixedColumnWidth);
+                }
+                writeParagraphInFixedLengthFormat(paragraphText, lineEnds[i], stringBuilder);
+                stringBuilder.append(insertLineBreakIfApplicable(paragraphs.length, start + i));
+            }
+        } catch (IOException e) {
+            // A StringBuilder never throws an IOException
+            throw new UncheckedIOException(e);
         }
         return stringBuilder.toString();
     }
 
-    private String transformParagraphToFixedLengthFormat(final String paragraphText) {
-        final StringBuilder stringBuilder = new StringBuilder();
-        int i = 0;
-        while (i < paragraphText.length()) {
-            int lineBreakIndex = min(selectedFormat.getFixedColumnWidth() + i, paragraphText.length());
-            final String subText = paragraphText.substring(i, lineBreakIndex);
-            final boolean isNextCharacterWhitespace = WHITESPACE.equals(
-                    valueOf(paragraphText.charAt(min(lineBreakIndex, paragraphText.length() - 1))));
-            // If the lineBreakIndex matches with the length of the whole paragraph it can be appended right away
-            if (lineBreakIndex == paragraphText.length()) {
-                stringBuilder.append(subText);
-            // If a whitespace has been found within the subText or as the next character, it needs to find out the
-            // location of the rightmost whitespace in order to perform the line break at the correct location.
-            } else if (subText.contains(WHITESPACE) || isNextCharacterWhitespace) {
-                lineBreakIndex = getUpdatedLineBreakIndex(paragraphText, lineBreakIndex, subText, isNextCharacterWhitespace, i);
-                stringBuilder.append(paragraphText, i, lineBreakIndex);
-            // If no whitespaces have been found within the fixed column width, a forced line break will be appended.
+    /**
+     * Writes the lines of a paragraph. Every line starts where the previous one ended; a line end stored as its bitwise
+     * complement marks a forced line break, which is followed by a hyphen.
+     */
+    private static void writeParagraphInFixedLengthFormat(final String paragraphText, final int[] lineEnds,
+                                                          final Appendable sink) throws IOException {
+        int lineStart = 0;
+        for (int lineEnd : lineEnds) {
+            if (lineEnd < 0) {
+                lineEnd = ~lineEnd;
+                sink.append(paragraphText, lineStart, lineEnd)
+                        .append(FORCED_LINE_BREAK);
             } else {
-                stringBuilder.append(subText, 0, subText.length() - 1)
-                        .append("-");
-                lineBreakIndex--;
+                sink.append(paragraphText, lineStart, lineEnd);
             }
-            stringBuilder.append(lineSeparator());
-            i = lineBreakIndex;
+            sink.append(lineSeparator());
+            lineStart = lineEnd;
         }
-        return stringBuilder.toString();
     }
 
-    private int getUpdatedLineBreakIndex(final String paragraphText, int lineBreakIndex, final String subText,
-                                         final boolean isNextCharacterWhitespace, final int previousLineBreakIndex) {
-        // There could be multiple spaces at the end of the current subText. To avoid their contribution to the next
-        // line break index they are being appended to the current line even though the fixed width will be exceeded
-        if (subText.endsWith(WHITESPACE) || isNextCharacterWhitespace) {
-            while (lineBreakIndex < paragraphText.length()
-                    && valueOf(paragraphText.charAt(lineBreakIndex)).equals(WHITESPACE)) {
-                lineBreakIndex++;
+    /**
+     * Calculates where the lines of the given paragraph end when it is wrapped at the given column width.
+     * <p>
+     * The text is scanned once from start to end: the scan position only moves forward while it remembers the last
+     * whitespace seen, so finding the rightmost whitespace of a line never rescans the line and nothing is copied.
+     *
+     * @return the exclusive end offset of every line, as its bitwise complement for a forced line break
+     */
+    private static int[] calculateLineEnds(final String paragraphText, final int fixedColumnWidth) {
+        final int length = paragraphText.length();
+        int[] lineEnds = new int[length / fixedColumnWidth + 1];
+        int lineCount = 0;
+        int lastWhitespace = -1;
+        int scanIndex = 0;
+        int lineStart = 0;
+        while (lineStart < length) {
+            final int lineBreakIndex = min(fixedColumnWidth + lineStart, length);
+            for (; scanIndex < lineBreakIndex; scanIndex++) {
+                if (paragraphText.charAt(scanIndex) == WHITESPACE_CHARACTER) {
+                    lastWhitespace = scanIndex;
+                }
             }
-        // To avoid word wrapping it appends the line break after the rightmost whitespace
-        } else {
-            lineBreakIndex = previousLineBreakIndex + subText.lastIndexOf(WHITESPACE) + 1;
+            int lineEnd;
+            // If the lineBreakIndex matches with the length of the whole paragraph the rest is the last line
+            if (lineBreakIndex == length) {
+                lineEnd = length;
+            // There could be multiple spaces at the end of the current line. To avoid their contribution to the next
+            // line they are appended to the current line even though the fixed width will be exceeded
+            } else if (lastWhitespace == lineBreakIndex - 1
+                    || paragraphText.charAt(lineBreakIndex) == WHITESPACE_CHARACTER) {
+                while (scanIndex < length && paragraphText.charAt(scanIndex) == WHITESPACE_CHARACTER) {
+                    lastWhitespace = scanIndex++;
+                }
+                lineEnd = scanIndex;
+            // To avoid word wrapping the line is broken after the rightmost whitespace
+            } else if (lastWhitespace >= lineStart) {
+                lineEnd = lastWhitespace + 1;
+            // If no whitespaces have been found within the fixed column width, a forced line break will be appended.
+            } else {
+                lineEnd = ~(lineBreakIndex - 1);
+            }
+            if (lineCount == lineEnds.length) {
+                lineEnds = Arrays.copyOf(lineEnds, lineCount * 2);
+            }
+            lineEnds[lineCount++] = lineEnd;
+            lineStart = lineEnd < 0 ? ~lineEnd : lineEnd;
         }
-        return lineBreakIndex;
+        return lineCount == lineEnds.length ? lineEnds : Arrays.copyOf(lineEnds, lineCount);
     }
 
-    private String insertLineBreakIfApplicable(int paragraphSize, int currentIndex) {
+    private static String insertLineBreakIfApplicable(int paragraphSize, int currentIndex) {
         return currentIndex == paragraphSize - 1
                 ? BLANK
                 : lineSeparator();
     }
 
+    /**
+     * Chunk of paragraphs which is rendered on the pool. It holds the line ends of its paragraphs, which are taken from
+     * the cache when the chunk is created and calculated by the rendering otherwise.
+     */
+    private class RenderedChunk {
+
+        private final Paragraph[] paragraphs;
+        private final int start;
+        private final int fixedColumnWidth;
+        private final int[][] lineEnds;
+        private final boolean[] cached;
+        private final CompletableFuture<String> text;
+
+        private RenderedChunk(final Paragraph[] paragraphs, final int start, final int end, final int fixedColumnWidth,
+                              final ForkJoinPool pool) {
+            this.paragraphs = paragraphs;
+            this.start = start;
+            this.fixedColumnWidth = fixedColumnWidth;
+            lineEnds = new int[end - start][];
+            cached = new boolean[end - start];
+            for (int i = 0; i < lineEnds.length; i++) {
+                lineEnds[i] = lineBreakCache.get(paragraphs[start + i], fixedColumnWidth);
+                cached[i] = lineEnds[i] != null;
+            }
+            text = CompletableFuture.supplyAsync(() -> renderChunk(paragraphs, start, lineEnds, fixedColumnWidth), pool);
+        }
+
+        private String join() throws IOException {
+            try {
+                return text.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) e.getCause()).getCause();
+                }
+                throw e;
+            }
+        }
+
+        private void cacheCalculatedLineEnds() {
+            for (int i = 0; i < lineEnds.length; i++) {
+                if (!cached[i]) {
+                    lineBreakCache.put(paragraphs[start + i], fixedColumnWidth, lineEnds[i]);
+                }
+            }
+        }
+
+    }
+
 }
@@ -1,80 +1,259 @@
 package textverarbeitung;
 
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.ToIntFunction;
 
+import static java.util.Objects.requireNonNull;
 import static textverarbeitung.TextConstants.BLANK;
 import static textverarbeitung.TextConstants.WHITESPACE;
 
 /**
  * Holds and calculates the Index {@link Map} of frequent words contained in the {@link Paragraph} objects.
+ * <p>
+ * The word frequencies of all paragraphs are kept in an inverted index which is updated with the delta of a single
+ * {@link Paragraph} whenever one is added, removed or changed. Reading the index therefore never has to go through
+ * the word frequencies of all paragraphs again.
+ * <p>
+ * Added paragraphs are only indexed when the index is read, since their word frequencies are only calculated upon
+ * their first access: adding and removing paragraphs which are never read from the index, i.e. a dummy flood which is
+ * deleted again, does not split a single one of them into words. The pending paragraphs are kept in a
+ * {@link ParagraphSet} of this IndexManager and, to index them in the order they have been added, in a plain array.
+ * Removing a pending paragraph only drops it from the set, and its entry of the array is skipped or dropped later on.
+ * <p>
+ * Only when many paragraphs are indexed at once, i.e. after loading a file, the index is built in parallel: the
+ * paragraphs are split into chunks on the common {@link ForkJoinPool}, every chunk builds its own partial index and
+ * the partial indices are merged pairwise up the tree of tasks.
  */
 public class IndexManager {
 
     private static final int INDEX_THRESHOLD = 4;
+    private static final int DEFAULT_PARALLEL_THRESHOLD = 10_000;
+    private static final int MIN_CHUNK_SIZE = 1_000;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int MIN_PENDING_CAPACITY = 16;
+    private static final Paragraph[] NO_PARAGRAPHS = new Paragraph[0];
 
+    private final Map<String, WordOccurrences> wordOccurrences = new HashMap<>();
     private final Map<String, Set<Integer>> indices = new HashMap<>();
+    private final ParagraphSet pendingParagraphs = new ParagraphSet();
+    /**
+     * The pending paragraphs in the order they have been added, including entries of paragraphs removed since.
+     */
+    private Paragraph[] pendingOrder = NO_PARAGRAPHS;
+    private int pendingEntries;
+    private final int parallelThreshold;
+
+    /**
+     * Creates a new IndexManager which indexes more than 10'000 paragraphs at once in parallel.
+     */
+    public IndexManager() {
+        this(DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Creates a new IndexManager.
+     *
+     * @param parallelThreshold the number of paragraphs from which on paragraphs added at once are indexed in parallel
+     */
+    public IndexManager(final int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
 
     Map<String, Set<Integer>> getIndices() {
         return indices;
     }
 
     /**
-     * Method to calculate the index over all {@link Paragraph} objects.
-     * First the index {@code HashMap} is cleared and
-     * then filled up with words that are checked against the INDEX_THRESHOLD
+     * Adds the word frequencies of the given {@link Paragraph} to the inverted index, as soon as it is read.
+     *
+     * @param paragraph the {@link Paragraph} which has been added or whose content has been changed
+     */
+    public void addParagraph(final Paragraph paragraph) {
+        if (pendingEntries == pendingOrder.length) {
+            makeRoomForPendingParagraph();
+        }
+        if (pendingParagraphs.add(paragraph)) {
+            pendingOrder[pendingEntries++] = paragraph;
+        }
+    }
+
+    /**
+     * Adds the word frequencies of all given {@link Paragraph}s to the inverted index, as soon as it is read.
+     * From the parallel threshold on, the pending paragraphs are indexed in parallel chunks then.
+     *
+     * @param paragraphs the {@link Paragraph}s which have been added
+     */
+    public void addParagraphs(final List<Paragraph> paragraphs) {
+        paragraphs.forEach(this::addParagraph);
+    }
+
+    /**
+     * Removes the word frequencies of the given {@link Paragraph} from the inverted index, or drops it if it has not
+     * been indexed yet. It has to be called before the content of the paragraph is changed.
+     *
+     * @param paragraph the {@link Paragraph} which is removed or whose content is about to be changed
+     */
+    public void removeParagraph(final Paragraph paragraph) {
+        if (pendingParagraphs.remove(paragraph)) {
+            return;
+        }
+        paragraph.forEachWordFrequency((word, frequency) -> {
+            final WordOccurrences occurrences = wordOccurrences.get(word);
+            if (occurrences != null) {
+                occurrences.remove(paragraph, frequency);
+                if (occurrences.isEmpty()) {
+                    wordOccurrences.remove(word);
+                }
+            }
+        });
+    }
+
+    /**
+     * Removes all words and paragraphs from the inverted index.
+     */
+    public void clear() {
+        wordOccurrences.clear();
+        indices.clear();
+        pendingParagraphs.clear();
+        pendingOrder = NO_PARAGRAPHS;
+        pendingEntries = 0;
+    }
+
+    /**
+     * Method to calculate the index over all {@link Paragraph} objects from scratch.
+     * First the inverted index is cleared and rebuilt from the given paragraphs (in parallel from the parallel
+     * threshold on), then the indices are read from it.
      *
      * @param paragraphs {@code List} of {@link Paragraph} Objects of which the words should be indexed.
      */
     public void calculateIndices(final List<Paragraph> paragraphs) {
+        requireNonNull(paragraphs, "paragraphs must not be null");
+        clear();
+        addParagraphs(paragraphs);
+        updateIndices(paragraphs);
+    }
+
+    /**
+     * Reads the indices from the current state of the inverted index.
+     * Only words that appear as much as the INDEX_THRESHOLD determines are taken over. The paragraphs are numbered
+     * by their position in the given list, which is only traversed once for the paragraphs that are actually listed.
+     *
+     * @param paragraphs {@code List} of all {@link Paragraph} objects in document order, used for the numbering.
+     */
+    public void updateIndices(final List<Paragraph> paragraphs) {
         indices.clear();
-        Map<String, Integer> wordFrequency = new HashMap<>();
+        numberParagraphs(collectFrequentWords(), paragraphs, indices);
+    }
 
-        for (Paragraph paragraph : paragraphs) {
-            Map<String, Integer> paragraphWordFrequency = paragraph.getParagraphWordFrequencies();
-            for (Map.Entry<String, Integer> entry : paragraphWordFrequency.entrySet()) {
-                if (wordFrequency.containsKey(entry.getKey())) {
-                    wordFrequency.put(entry.getKey(), wordFrequency.get(entry.getKey()) + entry.getValue());
-                } else {
-                    wordFrequency.put(entry.getKey(), entry.getValue());
-                }
+    /**
+     * Collects the words that appear as much as the INDEX_THRESHOLD determines, together with the paragraphs
+     * containing them. The paragraphs added since the index has been read last are indexed first. The collected words
+     * can be numbered with {@link #numberParagraphs} later on, without any further access to the inverted index,
+     * i.e. while it is changed further.
+     *
+     * @return the paragraphs containing each frequent word, in the iteration order of the inverted index
+     */
+    Map<String, Paragraph[]> collectFrequentWords() {
+        indexPendingParagraphs();
+        final Map<String, Paragraph[]> frequentWords = new LinkedHashMap<>();
+        for (Map.Entry<String, WordOccurrences> entry : wordOccurrences.entrySet()) {
+            if (entry.getValue().getTotalFrequency() >= INDEX_THRESHOLD) {
+                frequentWords.put(entry.getKey(), entry.getValue().getParagraphs());
             }
         }
-
-        checkAgainstThresholdAndFillIndices(wordFrequency);
-        addWordParagraphOccurrenceToIndices(paragraphs);
+        return frequentWords;
     }
 
     /**
-     * Takes the calculated wordFrequency {@code Map}
-     * and fills the Index {@code HashMap} with words that appear as much as the INDEX_THRESHOLD determines.
+     * Looks up the numbers of the paragraphs containing the collected frequent words one by one, i.e. in O(log n)
+     * each from a {@link ParagraphTree}, so the paragraphs which contain none of the words are never visited.
      *
-     * @param wordFrequency {@code Map} of calculated word frequency.
+     * @param frequentWords the frequent words as collected by {@link #collectFrequentWords()}
+     * @param positionOf    returns the current (0-based) position of a paragraph, or -1 if it cannot be found
+     * @return the number (1-based) of every paragraph containing a frequent word, or null if one cannot be found
      */
-    private void checkAgainstThresholdAndFillIndices(final Map<String, Integer> wordFrequency) {
-        for (Map.Entry<String, Integer> entry : wordFrequency.entrySet()) {
-            if (entry.getValue() >= INDEX_THRESHOLD) {
-                indices.put(entry.getKey(), new HashSet<>());
+    static Map<Paragraph, Integer> lookUpParagraphNumbers(final Map<String, Paragraph[]> frequentWords,
+                                                          final ToIntFunction<Paragraph> positionOf) {
+        final Map<Paragraph, Integer> paragraphNumbers = new IdentityHashMap<>();
+        for (Paragraph[] wordParagraphs : frequentWords.values()) {
+            for (Paragraph paragraph : wordParagraphs) {
+                if (!paragraphNumbers.containsKey(paragraph)) {
+                    final int position = positionOf.applyAsInt(paragraph);
+                    if (position < 0) {
+                        return null;
+                    }
+                    paragraphNumbers.put(paragraph, position + 1);
+                }
             }
         }
+        return paragraphNumbers;
     }
 
     /**
-     * Uses all {@link Paragraph} objects to add occurrence of words to Index {@code HashMap}.
+     * Puts the numbers of the paragraphs containing each of the collected frequent words into the given indices.
+     * The paragraphs are numbered by their position in the given list, which is only traversed once for the
+     * paragraphs that are actually listed.
      *
-     * @param paragraphs {@code List} of {@link Paragraph} objects.
+     * @param frequentWords the frequent words as collected by {@link #collectFrequentWords()}
+     * @param paragraphs    {@code List} of all {@link Paragraph} objects in document order, used for the numbering.
+     * @param indices       the map to put the numbers of the paragraphs of every word into
+     * @return the given indices
      */
-    private void addWordParagraphOccurrenceToIndices(final List<Paragraph> paragraphs) {
-        for (Map.Entry<String, Set<Integer>> entry : indices.entrySet()) {
-            for (int i = 0; i < paragraphs.size(); i++) {
-                if (paragraphs.get(i).getParagraphWordFrequencies().containsKey(entry.getKey())) {
-                    entry.getValue().add(i + 1);
+    static Map<String, Set<Integer>> numberParagraphs(final Map<String, Paragraph[]> frequentWords,
+                                                      final List<Paragraph> paragraphs,
+                                                      final Map<String, Set<Integer>> indices) {
+        if (frequentWords.isEmpty()) {
+            return indices;
+        }
+        final Map<Paragraph, Integer> paragraphNumbers = new IdentityHashMap<>();
+        for (Paragraph[] wordParagraphs : frequentWords.values()) {
+            for (Paragraph paragraph : wordParagraphs) {
+                paragraphNumbers.put(paragraph, null);
+            }
+        }
+
+        int remainingParagraphs = paragraphNumbers.size();
+        int paragraphNumber = 0;
+        for (Paragraph paragraph : paragraphs) {
+            paragraphNumber++;
+            if (paragraphNumbers.containsKey(paragraph)) {
+                paragraphNumbers.put(paragraph, paragraphNumber);
+                if (--remainingParagraphs == 0) {
+                    break;
                 }
             }
         }
+        return numberParagraphs(frequentWords, paragraphNumbers, indices);
+    }
+
+    /**
+     * Puts the numbers of the paragraphs containing each of the collected frequent words into the given indices.
+     *
+     * @param frequentWords    the frequent words as collected by {@link #collectFrequentWords()}
+     * @param paragraphNumbers the number (1-based) of every paragraph containing a frequent word
+     * @param indices          the map to put the numbers of the paragraphs of every word into
+     * @return the given indices
+     */
+    static Map<String, Set<Integer>> numberParagraphs(final Map<String, Paragraph[]> frequentWords,
+                                                      final Map<Paragraph, Integer> paragraphNumbers,
+                                                      final Map<String, Set<Integer>> indices) {
+        for (Map.Entry<String, Paragraph[]> entry : frequentWords.entrySet()) {
+            final ParagraphNumberSet numbers = new ParagraphNumberSet(entry.getValue().length);
+            for (Paragraph paragraph : entry.getValue()) {
+                numbers.append(paragraphNumbers.get(paragraph));
+            }
+            numbers.sort();
+            indices.put(entry.getKey(), numbers);
+        }
+        return indices;
     }
 
     /**
@@ -84,25 +263,163 @@ public class IndexManager {
      * @return Index in {@code String} format
      */
     public String transformIndicesToPrintFormat() {
+        return transformIndicesToPrintFormat(indices);
+    }
+
+    /**
+     * Returns the given indices in {@code String} Format.
+     * If they are empty it will return an information message.
+     *
+     * @param indices the numbers of the paragraphs containing each frequent word
+     * @return Index in {@code String} format
+     */
+    static String transformIndicesToPrintFormat(final Map<String, Set<Integer>> indices) {
         if (indices.isEmpty()) {
             return "Not enough words were found to index.";
         }
 
         final StringBuilder stringBuilder = new StringBuilder();
         for (Map.Entry<String, Set<Integer>> entry : indices.entrySet()) {
+            if (stringBuilder.length() > 0) {
+                stringBuilder.append(System.lineSeparator());
+            }
             stringBuilder.append(entry.getKey())
                     .append(WHITESPACE);
 
+            boolean firstNumber = true;
             for (Integer number : entry.getValue()) {
-                stringBuilder.append(number == entry.getValue().toArray()[0] ? BLANK : ",")
+                stringBuilder.append(firstNumber ? BLANK : ",")
                         .append(number);
+                firstNumber = false;
             }
+        }
+        return stringBuilder.toString();
+    }
 
-            if (entry != indices.entrySet().toArray()[indices.size() - 1]) {
-                stringBuilder.append(System.lineSeparator());
+    /**
+     * Adds the word frequencies of the pending paragraphs to the inverted index, in parallel chunks from the parallel
+     * threshold on.
+     */
+    private void indexPendingParagraphs() {
+        if (pendingParagraphs.isEmpty()) {
+            pendingOrder = NO_PARAGRAPHS;
+            pendingEntries = 0;
+            return;
+        }
+        final Paragraph[] paragraphArray = takePendingParagraphs();
+        pendingOrder = NO_PARAGRAPHS;
+        pendingEntries = 0;
+        if (paragraphArray.length < parallelThreshold) {
+            for (Paragraph paragraph : paragraphArray) {
+                paragraph.forEachWordFrequency((word, frequency) -> wordOccurrences
+                        .computeIfAbsent(word, newWord -> new WordOccurrences()).add(paragraph, frequency));
             }
+            return;
         }
-        return stringBuilder.toString();
+
+        final ForkJoinPool pool = ForkJoinPool.commonPool();
+        final int chunkSize = Math.max(MIN_CHUNK_SIZE,
+                paragraphArray.length / (pool.getParallelism() * CHUNKS_PER_THREAD));
+        final Map<String, WordOccurrences> partialIndex =
+                pool.invoke(new PartialIndexTask(paragraphArray, 0, paragraphArray.length, chunkSize));
+        if (wordOccurrences.isEmpty()) {
+            wordOccurrences.putAll(partialIndex);
+        } else {
+            mergeInto(wordOccurrences, partialIndex);
+        }
+    }
+
+    /**
+     * Drops the entries of the removed paragraphs if they make up at least half of the pending paragraphs, or doubles
+     * the capacity otherwise. A paragraph removed and added again has two entries, of which only the first is kept.
+     */
+    private void makeRoomForPendingParagraph() {
+        if (pendingParagraphs.size() <= pendingEntries / 2 && pendingEntries >= MIN_PENDING_CAPACITY) {
+            final Paragraph[] paragraphArray = takePendingParagraphs();
+            System.arraycopy(paragraphArray, 0, pendingOrder, 0, paragraphArray.length);
+            Arrays.fill(pendingOrder, paragraphArray.length, pendingEntries, null);
+            for (Paragraph paragraph : paragraphArray) {
+                pendingParagraphs.add(paragraph);
+            }
+            pendingEntries = paragraphArray.length;
+            return;
+        }
+        pendingOrder = Arrays.copyOf(pendingOrder, Math.max(MIN_PENDING_CAPACITY, pendingEntries * 2));
+    }
+
+    /**
+     * Returns the pending paragraphs which have not been removed again, in the order they have been added, and
+     * empties the set of pending paragraphs.
+     */
+    private Paragraph[] takePendingParagraphs() {
+        final Paragraph[] paragraphArray = new Paragraph[pendingParagraphs.size()];
+        int count = 0;
+        for (int i = 0; i < pendingEntries; i++) {
+            if (pendingParagraphs.remove(pendingOrder[i])) {
+                paragraphArray[count++] = pendingOrder[i];
+            }
+        }
+        pendingParagraphs.clear();
+        return paragraphArray;
+    }
+
+    /**
+     * Merges the entries of the source index into the target index. Entries of words unknown to the target are taken
+     * over as they are.
+     */
+    private static void mergeInto(final Map<String, WordOccurrences> target, final Map<String, WordOccurrences> source) {
+        for (Map.Entry<String, WordOccurrences> entry : source.entrySet()) {
+            final WordOccurrences occurrences = target.putIfAbsent(entry.getKey(), entry.getValue());
+            if (occurrences != null) {
+                occurrences.addAll(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Builds the partial index of a range of paragraphs. Ranges larger than the chunk size are split in halves, whose
+     * partial indices are built in parallel and merged afterwards, the smaller one into the larger one.
+     */
+    private static class PartialIndexTask extends RecursiveTask<Map<String, WordOccurrences>> {
+
+        private final Paragraph[] paragraphs;
+        private final int start;
+        private final int end;
+        private final int chunkSize;
+
+        private PartialIndexTask(final Paragraph[] paragraphs, final int start, final int end, final int chunkSize) {
+            this.paragraphs = paragraphs;
+            this.start = start;
+            this.end = end;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected Map<String, WordOccurrences> compute() {
+            if (end - start <= chunkSize) {
+                final Map<String, WordOccurrences> partialIndex = new HashMap<>();
+                for (int i = start; i < end; i++) {
+                    final Paragraph paragraph = paragraphs[i];
+                    paragraph.forEachWordFrequency((word, frequency) ->
+                            partialIndex.computeIfAbsent(word, newWord -> new WordOccurrences()).add(paragraph, frequency));
+                }
+                return partialIndex;
+            }
+
+            final int middle = (start + end) >>> 1;
+            final PartialIndexTask rightTask = new PartialIndexTask(paragraphs, middle, end, chunkSize);
+            rightTask.fork();
+            final Map<String, WordOccurrences> leftIndex =
+                    new PartialIndexTask(paragraphs, start, middle, chunkSize).compute();
+            final Map<String, WordOccurrences> rightIndex = rightTask.join();
+            if (leftIndex.size() >= rightIndex.size()) {
+                mergeInto(leftIndex, rightIndex);
+                return leftIndex;
+            }
+            mergeInto(rightIndex, leftIndex);
+            return rightIndex;
+        }
+
     }
 
 }
@@ -1,6 +1,9 @@
 package textverarbeitung;
 
-import java.util.EnumSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import static textverarbeitung.Command.UNKNOWN;
 import static textverarbeitung.TextConstants.WHITESPACE;
@@ -10,6 +13,21 @@ import static textverarbeitung.TextConstants.WHITESPACE;
  */
 public class InputParser {
 
+    /**
+     * Separates the command from its inline payloads within one input line, i.e. {@code ADD 2 | Some text}.
+     * It is no allowed character of a {@link Paragraph}, but the alternation of a regular expression, so it can be
+     * escaped as {@code \|} within an inline payload.
+     */
+    public static final String PAYLOAD_SEPARATOR = "|";
+
+    private static final char SEPARATOR_CHARACTER = '|';
+    private static final char ESCAPE_CHARACTER = '\\';
+
+    /**
+     * Root of the trie over the words of all {@link Command} identifiers, built once.
+     */
+    private static final CommandTrieNode COMMAND_TRIE = buildCommandTrie();
+
     /**
      * Trims and Splits the given user input at every WHITESPACE.
      *
@@ -20,21 +38,59 @@ public class InputParser {
         return rawUserInput.trim().split(WHITESPACE);
     }
 
+    /**
+     * Splits the given user input at every {@value #PAYLOAD_SEPARATOR} into the command part and the inline payloads.
+     * The whitespaces around the separators are removed. An escaped separator {@code \|} does not split the input but
+     * is taken over as {@value #PAYLOAD_SEPARATOR}, while a backslash followed by any other character is taken over
+     * together with it (i.e. {@code \\} stays an escaped backslash of a regular expression).
+     *
+     * @param rawUserInput the input from the console by the user
+     * @return the command part followed by the inline payloads (if any)
+     */
+    public String[] splitInlinePayloads(final String rawUserInput) {
+        if (rawUserInput.indexOf(SEPARATOR_CHARACTER) < 0) {
+            return new String[]{rawUserInput};
+        }
+        final List<String> inputParts = new ArrayList<>();
+        final StringBuilder inputPart = new StringBuilder();
+        for (int i = 0; i < rawUserInput.length(); i++) {
+            final char character = rawUserInput.charAt(i);
+            if (character == SEPARATOR_CHARACTER) {
+                inputParts.add(inputPart.toString().trim());
+                inputPart.setLength(0);
+            } else if (character == ESCAPE_CHARACTER && i + 1 < rawUserInput.length()) {
+                final char escaped = rawUserInput.charAt(++i);
+                if (escaped != SEPARATOR_CHARACTER) {
+                    inputPart.append(character);
+                }
+                inputPart.append(escaped);
+            } else {
+                inputPart.append(character);
+            }
+        }
+        inputParts.add(inputPart.toString().trim());
+        return inputParts.toArray(new String[0]);
+    }
+
     /**
      * Checks if the user input contained a matching {@link Command} and returns it.
+     * The words of the input are matched case-insensitively against the trie of all command identifiers in a single
+     * pass, where the command with the most matching words wins (i.e. 'FORMAT FIX' over a command 'FORMAT').
      * If no command has been found, the enum constant UNKNOWN will be returned.
      *
      * @param userInput array of {@link String} Objects, representing the user Input.
      * @return Matching {@link Command} constant.
      */
     public Command getMatchingCommand(final String[] userInput) {
-        for (Command command : EnumSet.allOf(Command.class)) {
-            int numberOfIdentifierWords = command.getNumberOfIdentifierWords();
-            if (userInput.length >= numberOfIdentifierWords && command.getIdentifier() != null && command.getIdentifier().equalsIgnoreCase(getConcatenatedUserInput(userInput, numberOfIdentifierWords))) {
-                return command;
+        Command matchingCommand = UNKNOWN;
+        CommandTrieNode node = COMMAND_TRIE;
+        for (int i = 0; i < userInput.length && node != null; i++) {
+            node = node.children.get(userInput[i]);
+            if (node != null && node.command != null) {
+                matchingCommand = node.command;
             }
         }
-        return UNKNOWN;
+        return matchingCommand;
     }
 
     /**
@@ -69,19 +125,29 @@ public class InputParser {
         return userInput.length - selectedCommand.getNumberOfIdentifierWords() < selectedCommand.getNumberOfParameters();
     }
 
+    private static CommandTrieNode buildCommandTrie() {
+        final CommandTrieNode root = new CommandTrieNode();
+        for (Command command : Command.values()) {
+            if (command.getIdentifier() != null) {
+                CommandTrieNode node = root;
+                for (String identifierWord : command.getIdentifier().split(WHITESPACE)) {
+                    node = node.children.computeIfAbsent(identifierWord, word -> new CommandTrieNode());
+                }
+                node.command = command;
+            }
+        }
+        return root;
+    }
+
     /**
-     * Method to separate {@link Command} within user input from parameters.
-     *
-     * @param userInput               array of {@link String} Objects, representing the user Input.
-     * @param numberOfIdentifierWords number of words a given command contains. (i.e. 2 for 'format fix')
-     * @return returns {@link String} of User Input that can be compared with the {@link Command} identifier
+     * Node of the trie over the words of the {@link Command} identifiers. Its children are looked up by the next word,
+     * ignoring case, and it holds the command whose identifier ends with this node, if any.
      */
-    private String getConcatenatedUserInput(String[] userInput, int numberOfIdentifierWords) {
-        final StringBuilder concatenatedUserInput = new StringBuilder();
-        for (int i = 0; i < numberOfIdentifierWords; i++) {
-            concatenatedUserInput.append(userInput[i]).append(WHITESPACE);
-        }
-        return concatenatedUserInput.toString().trim();
+    private static class CommandTrieNode {
+
+        private final Map<String, CommandTrieNode> children = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        private Command command;
+
     }
 
 }
@@ -0,0 +1,123 @@
+package textverarbeitung;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches the line breaks of {@link Paragraph}s printed with a fixed column width, so unchanged paragraphs are not
+ * wrapped again on every print.
+ * <p>
+ * An entry only holds the offsets where the lines of a paragraph end, never a copy of its text. Since the content of
+ * a paragraph never changes, it is valid as long as the column width does not change. The paragraphs are referenced
+ * weakly and by identity, since a Paragraph does not override {@code equals}: once a paragraph has been replaced or
+ * deleted and is no longer referenced by the document or its undo history, its entry is dropped with it. Once the
+ * capacity is exceeded, the least recently used entry is evicted.
+ */
+class LineBreakCache {
+
+    private final Map<ParagraphKey, LineBreaks> entries;
+    private final ReferenceQueue<Paragraph> collectedParagraphs = new ReferenceQueue<>();
+
+    /**
+     * Creates a new LineBreakCache.
+     *
+     * @param capacity the maximum number of paragraphs whose line breaks are kept
+     */
+    LineBreakCache(final int capacity) {
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<ParagraphKey, LineBreaks> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached line ends of the given {@link Paragraph} for the given column width.
+     *
+     * @param paragraph        the paragraph to look up
+     * @param fixedColumnWidth the column width the paragraph is printed with
+     * @return the line ends, or null if none are cached for the paragraph and the given width
+     */
+    int[] get(final Paragraph paragraph, final int fixedColumnWidth) {
+        final LineBreaks lineBreaks = entries.get(new ParagraphKey(paragraph, null));
+        if (lineBreaks == null || lineBreaks.fixedColumnWidth != fixedColumnWidth) {
+            return null;
+        }
+        return lineBreaks.lineEnds;
+    }
+
+    /**
+     * Caches the line ends of the given {@link Paragraph} for the given column width.
+     *
+     * @param paragraph        the paragraph which has been wrapped
+     * @param fixedColumnWidth the column width the paragraph is printed with
+     * @param lineEnds         the line ends of the paragraph
+     */
+    void put(final Paragraph paragraph, final int fixedColumnWidth, final int[] lineEnds) {
+        removeCollectedParagraphs();
+        entries.put(new ParagraphKey(paragraph, collectedParagraphs), new LineBreaks(fixedColumnWidth, lineEnds));
+    }
+
+    int size() {
+        removeCollectedParagraphs();
+        return entries.size();
+    }
+
+    private void removeCollectedParagraphs() {
+        Object key;
+        while ((key = collectedParagraphs.poll()) != null) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Weak reference to a paragraph as the key of an entry, which is equal to the keys of the same paragraph only.
+     * A key whose paragraph has been collected is only equal to itself, so its entry can still be removed.
+     */
+    private static class ParagraphKey extends WeakReference<Paragraph> {
+
+        private final int hash;
+
+        private ParagraphKey(final Paragraph paragraph, final ReferenceQueue<Paragraph> queue) {
+            super(paragraph, queue);
+            hash = System.identityHashCode(paragraph);
+        }
+
+        @Override
+        public boolean equals(final Object object) {
+            if (this == object) {
+                return true;
+            }
+            if (!(object instanceof ParagraphKey)) {
+                return false;
+            }
+            final Paragraph paragraph = get();
+            return paragraph != null && paragraph == ((ParagraphKey) object).get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+    }
+
+    /**
+     * Line ends of one paragraph together with the column width they have been calculated for.
+     */
+    private static class LineBreaks {
+
+        private final int fixedColumnWidth;
+        private final int[] lineEnds;
+
+        private LineBreaks(final int fixedColumnWidth, final int[] lineEnds) {
+            this.fixedColumnWidth = fixedColumnWidth;
+            this.lineEnds = lineEnds;
+        }
+
+    }
+
+}
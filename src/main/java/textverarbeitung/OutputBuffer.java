@@ -0,0 +1,127 @@
+package textverarbeitung;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.function.Supplier;
+
+/**
+ * {@link Writer} collecting characters in one reusable buffer of a fixed size.
+ * The characters are only encoded and written to the target {@link OutputStream} in a single call when the buffer is
+ * full or when it is flushed explicitly. This keeps the number of write calls, and therefore system calls, low even
+ * for large outputs.
+ * <p>
+ * The target is looked up on every flush, so a supplier like {@code () -> System.out} follows any redirection.
+ */
+class OutputBuffer extends Writer {
+
+    private final Supplier<? extends OutputStream> target;
+    private final char[] characters;
+    private final ByteBuffer bytes;
+    private final CharsetEncoder encoder;
+
+    private int count;
+
+    /**
+     * Creates a new OutputBuffer.
+     *
+     * @param target   supplies the {@link OutputStream} to write the encoded characters to
+     * @param capacity the number of characters the buffer holds before it is written out
+     * @param charset  the {@link Charset} to encode the characters with
+     */
+    OutputBuffer(final Supplier<? extends OutputStream> target, final int capacity, final Charset charset) {
+        this.target = target;
+        characters = new char[capacity];
+        encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        bytes = ByteBuffer.allocate((int) Math.ceil(capacity * (double) encoder.maxBytesPerChar()));
+    }
+
+    @Override
+    public void write(final int character) throws IOException {
+        characters[count++] = (char) character;
+        drainIfFull();
+    }
+
+    @Override
+    public void write(final char[] source, int offset, int length) throws IOException {
+        while (length > 0) {
+            final int chunkLength = Math.min(length, characters.length - count);
+            System.arraycopy(source, offset, characters, count, chunkLength);
+            count += chunkLength;
+            offset += chunkLength;
+            length -= chunkLength;
+            drainIfFull();
+        }
+    }
+
+    @Override
+    public void write(final String source, int offset, int length) throws IOException {
+        while (length > 0) {
+            final int chunkLength = Math.min(length, characters.length - count);
+            source.getChars(offset, offset + chunkLength, characters, count);
+            count += chunkLength;
+            offset += chunkLength;
+            length -= chunkLength;
+            drainIfFull();
+        }
+    }
+
+    @Override
+    public Writer append(final CharSequence source, final int start, final int end) throws IOException {
+        // The default implementation would copy the range into a new String first
+        if (source instanceof String) {
+            write((String) source, start, end - start);
+        } else {
+            for (int i = start; i < end; i++) {
+                write(source.charAt(i));
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+        target.get().flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    private void drainIfFull() throws IOException {
+        if (count == characters.length) {
+            drain();
+        }
+    }
+
+    /**
+     * Encodes the buffered characters and writes them to the target with a single call.
+     * An unpaired high surrogate at the end stays in the buffer until its low surrogate is written.
+     */
+    private void drain() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        final CharBuffer input = CharBuffer.wrap(characters, 0, count);
+        final OutputStream outputStream = target.get();
+        boolean overflow = true;
+        while (overflow) {
+            overflow = encoder.encode(input, bytes, false).isOverflow();
+            outputStream.write(bytes.array(), 0, bytes.position());
+            bytes.clear();
+        }
+        final int remaining = input.remaining();
+        System.arraycopy(characters, input.position(), characters, 0, remaining);
+        count = remaining;
+    }
+
+}
@@ -0,0 +1,22 @@
+package textverarbeitung;
+
+/**
+ * Determines when the {@link Console} writes out its buffered output.
+ */
+public enum OutputMode {
+
+    /**
+     * Every print is written out immediately.
+     */
+    UNBUFFERED,
+    /**
+     * The output is buffered and written out before the next input is read, so every prompt is visible.
+     */
+    INTERACTIVE,
+    /**
+     * The output is buffered and only written out when the buffer is full or when it is flushed explicitly.
+     * Used for non-interactive input, where nobody waits for a prompt.
+     */
+    BATCH
+
+}
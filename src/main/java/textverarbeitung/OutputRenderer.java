@@ -0,0 +1,20 @@
+package textverarbeitung;
+
+import java.io.IOException;
+
+/**
+ * Renders output directly into a sink provided by the {@link Console}, instead of building a {@link String} first.
+ * It is used for outputs which can grow with the size of the document, like the PRINT {@link Command}.
+ */
+@FunctionalInterface
+public interface OutputRenderer {
+
+    /**
+     * Writes the output to the given sink.
+     *
+     * @param sink the {@link Appendable} to write the output to
+     * @throws IOException if the sink cannot be written to
+     */
+    void render(Appendable sink) throws IOException;
+
+}
@@ -1,25 +1,36 @@
 package textverarbeitung;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.function.ObjIntConsumer;
 
 import static java.lang.Character.isUpperCase;
 import static java.util.Objects.requireNonNull;
-import static textverarbeitung.TextConstants.BLANK;
-import static textverarbeitung.TextConstants.WHITESPACE;
+import static textverarbeitung.CharacterClass.isSpecial;
+import static textverarbeitung.CharacterClass.sanitize;
 
 /**
  * Paragraph Class stores the content of each paragraph in a String.
+ * <p>
+ * The content of a Paragraph is never changed: a replacement creates a changed copy instead, so a Paragraph read by
+ * one thread is never changed by another, and the {@link EditorManager} keeps its indices and its journal up to date
+ * with every copy it exchanges.
+ * <p>
+ * The word frequencies are only calculated upon their first access, i.e. when the paragraph is indexed, and kept
+ * from then on. Paragraphs which are never indexed are never split into words. Threads reading the frequencies of the
+ * same Paragraph at the same time may each calculate them, but all of them get complete and equal frequencies, which
+ * are published through a volatile field.
  */
 public class Paragraph {
 
-    private static final String SPECIAL_CHARACTERS = ".,:;\\-!?’\s()\"%@+*\\[\\]{}/&#$\\\\";
-    private static final String ALLOWED_CHARACTERS = "([^A-Za-z0-9\u00E4\u00F6\u00FC\u00C4\u00D6\u00DC" + SPECIAL_CHARACTERS + "])";
-    private static final int WORD_FREQUENCY_INCREMENTER = 1;
+    static final String NOTHING_REPLACED_MESSAGE = "We couldn't find anything to replace.";
 
-    private final Map<String, Integer> paragraphWordFrequencies;
+    /**
+     * The word frequencies of the content, or null if they have not been calculated yet.
+     */
+    private volatile WordFrequencyMap paragraphWordFrequencies;
 
-    private String content;
+    private final String content;
+    private ParagraphTree.Node treeNode;
 
     /**
      * Creates a new Paragraph Object using the passed string.
@@ -27,10 +38,7 @@ public class Paragraph {
      * @param content String with the text content of this Paragraph.
      */
     public Paragraph(String content) {
-        this.content = requireNonNull(content, "content must not be null")
-                .replaceAll(ALLOWED_CHARACTERS, BLANK);
-        paragraphWordFrequencies = new HashMap<>();
-        calculateWordFrequency(content);
+        this.content = sanitize(requireNonNull(content, "content must not be null"));
     }
 
     public String getContent() {
@@ -38,55 +46,136 @@ public class Paragraph {
     }
 
     /**
-     * Returns a Map filled with a set of words and their frequency.
+     * Returns the node of the {@link ParagraphTree} holding this Paragraph, which is used to find its position.
+     *
+     * @return the node created last for this Paragraph, or null if it has never been added to a tree
+     */
+    ParagraphTree.Node getTreeNode() {
+        return treeNode;
+    }
+
+    void setTreeNode(final ParagraphTree.Node treeNode) {
+        this.treeNode = treeNode;
+    }
+
+    /**
+     * Returns a read-only Map filled with a set of words and their frequency.
      *
-     * @return returns a Map filled with a set of words and their frequency.
+     * @return returns a read-only Map filled with a set of words and their frequency.
      */
     public Map<String, Integer> getParagraphWordFrequencies() {
-        return paragraphWordFrequencies;
+        return getWordFrequencies();
     }
 
     /**
-     * Replaces the String toSearch with the String toReplaceWith in the String content. If the replacement was successful
-     * it calls up the method calculateWordFrequency.
+     * Passes every word of this Paragraph with its frequency to the given consumer without boxing the frequency.
      *
-     * @param toSearch       String that should be replaced.
-     * @param toReplaceWith  String that is replacing the searched string.
-     * @param paragraphIndex Number of current paragraph.
-     * @return Returns a message if the replacement was successful or not.
+     * @param consumer receives the words and their frequencies
+     */
+    void forEachWordFrequency(final ObjIntConsumer<String> consumer) {
+        getWordFrequencies().forEachCount(consumer);
+    }
+
+    /**
+     * Returns the word frequencies of the content, which are calculated upon the first access.
      */
-    public String searchReplaceParagraphContent(String toSearch, String toReplaceWith, Integer paragraphIndex) {
-        toSearch = toSearch.replaceAll(ALLOWED_CHARACTERS, BLANK);
-        toReplaceWith = toReplaceWith.replaceAll(ALLOWED_CHARACTERS, BLANK);
-        if (content.contains(toSearch)) {
-            this.content = content.replace(toSearch, toReplaceWith);
-            calculateWordFrequency(content);
-            return "Characters " + toSearch + " have been replaced with " + toReplaceWith + " in paragraph Nr. "
-                    + paragraphIndex + ".";
-        } else {
-            return "We couldn't find anything to replace.";
+    private WordFrequencyMap getWordFrequencies() {
+        WordFrequencyMap wordFrequencies = paragraphWordFrequencies;
+        if (wordFrequencies == null) {
+            wordFrequencies = calculateWordFrequency(content);
+            paragraphWordFrequencies = wordFrequencies;
         }
+        return wordFrequencies;
+    }
+
+    /**
+     * Returns a copy of this Paragraph in which the pattern of the given {@link TextMatcher} is replaced with the
+     * String toReplaceWith, while this Paragraph stays unchanged. The String toReplaceWith has to be sanitized already.
+     *
+     * @param matcher       finds the sanitized String that should be replaced.
+     * @param toReplaceWith String that is replacing the searched string.
+     * @return the changed copy, or null if the pattern does not occur
+     */
+    Paragraph withReplacement(final TextMatcher matcher, final String toReplaceWith) {
+        final TextMatcher.Replacement replacement = matcher.replaceIn(content, toReplaceWith);
+        return replacement == null ? null : new Paragraph(replacement.getText());
+    }
+
+    /**
+     * Returns a copy of this Paragraph in which the given range of the content is replaced with the given text, i.e.
+     * to undo or redo a replacement. This Paragraph stays unchanged.
+     *
+     * @param start       index of the first character to replace
+     * @param end         index after the last character to replace
+     * @param replacement the text to insert instead
+     * @return the changed copy
+     */
+    Paragraph withContentRange(final int start, final int end, final String replacement) {
+        return new Paragraph(content.substring(0, start) + replacement + content.substring(end));
+    }
+
+    /**
+     * Returns the message of a successful replacement.
+     *
+     * @param toSearch       the sanitized String that has been replaced.
+     * @param toReplaceWith  the sanitized String that has replaced it.
+     * @param paragraphIndex Number of the paragraph.
+     * @return the result message
+     */
+    static String replacedMessage(final String toSearch, final String toReplaceWith, final Integer paragraphIndex) {
+        return "Characters " + toSearch + " have been replaced with " + toReplaceWith + " in paragraph Nr. "
+                + paragraphIndex + ".";
     }
 
     /**
      * Returns a Map with the frequency of every word from the String content.
+     * A word is a whitespace separated token without its special characters, which starts with an uppercase letter.
+     * The content is scanned once; a word is only copied if it is counted.
      *
      * @param content String with the text content of this Paragraph.
+     * @return the frequencies of the words of the content
      */
-    private void calculateWordFrequency(String content) {
-        paragraphWordFrequencies.clear();
-        for (String currentWord : content.split(WHITESPACE)) {
-            currentWord = currentWord.replaceAll("[" + SPECIAL_CHARACTERS + "]", BLANK);
-            if (!currentWord.trim().isBlank() && startsWithUppercase(currentWord)) {
-                paragraphWordFrequencies.put(currentWord, paragraphWordFrequencies.containsKey(currentWord)
-                        ? (paragraphWordFrequencies.get(currentWord) + WORD_FREQUENCY_INCREMENTER)
-                        : WORD_FREQUENCY_INCREMENTER);
+    private static WordFrequencyMap calculateWordFrequency(final String content) {
+        final WordFrequencyMap paragraphWordFrequencies = new WordFrequencyMap();
+        final int length = content.length();
+        StringBuilder splitWord = null;
+        int i = 0;
+        while (i < length) {
+            // Bounds of the characters of the current token which are not special characters
+            int wordStart = -1;
+            int wordEnd = -1;
+            boolean interrupted = false;
+            for (; i < length && content.charAt(i) != ' '; i++) {
+                if (!isSpecial(content.charAt(i))) {
+                    if (wordStart < 0) {
+                        wordStart = i;
+                    } else if (wordEnd < i) {
+                        interrupted = true;
+                    }
+                    wordEnd = i + 1;
+                }
             }
-        }
-    }
+            i++;
 
-    private static boolean startsWithUppercase(String currentWord) {
-        return isUpperCase(currentWord.charAt(0));
+            if (wordStart >= 0 && isUpperCase(content.charAt(wordStart))) {
+                final String currentWord;
+                // Special characters within a word (i.e. 'Nr.1') are dropped, which needs a copy of the remainder
+                if (interrupted) {
+                    splitWord = splitWord == null ? new StringBuilder() : splitWord;
+                    splitWord.setLength(0);
+                    for (int j = wordStart; j < wordEnd; j++) {
+                        if (!isSpecial(content.charAt(j))) {
+                            splitWord.append(content.charAt(j));
+                        }
+                    }
+                    currentWord = splitWord.toString();
+                } else {
+                    currentWord = content.substring(wordStart, wordEnd);
+                }
+                paragraphWordFrequencies.increment(currentWord);
+            }
+        }
+        return paragraphWordFrequencies;
     }
 
-}
\ No newline at end of file
+}
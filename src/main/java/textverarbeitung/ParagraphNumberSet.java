@@ -0,0 +1,102 @@
+package textverarbeitung;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Sorted set of paragraph numbers stored as a primitive {@code int} array, used as the posting list of a word in the
+ * indices of the {@link IndexManager}.
+ * <p>
+ * Numbers are appended unordered while the index is read and sorted once afterwards, so building a posting list
+ * neither boxes nor allocates tree nodes. Iterating returns the numbers in ascending order.
+ */
+class ParagraphNumberSet extends AbstractSet<Integer> {
+
+    private int[] numbers;
+    private int size;
+
+    /**
+     * Creates a new empty ParagraphNumberSet.
+     *
+     * @param expectedSize the number of paragraph numbers which are going to be appended
+     */
+    ParagraphNumberSet(final int expectedSize) {
+        numbers = new int[Math.max(1, expectedSize)];
+    }
+
+    /**
+     * Appends the given paragraph number without keeping the order. {@link #sort()} must be called before the set is
+     * read.
+     *
+     * @param number the paragraph number to append
+     */
+    void append(final int number) {
+        if (size == numbers.length) {
+            numbers = Arrays.copyOf(numbers, size * 2);
+        }
+        numbers[size++] = number;
+    }
+
+    /**
+     * Sorts the appended paragraph numbers and drops duplicates.
+     */
+    void sort() {
+        Arrays.sort(numbers, 0, size);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || numbers[distinct - 1] != numbers[i]) {
+                numbers[distinct++] = numbers[i];
+            }
+        }
+        size = distinct;
+    }
+
+    @Override
+    public boolean add(final Integer number) {
+        final int position = Arrays.binarySearch(numbers, 0, size, number);
+        if (position >= 0) {
+            return false;
+        }
+        final int insertionPoint = -position - 1;
+        if (size == numbers.length) {
+            numbers = Arrays.copyOf(numbers, size * 2);
+        }
+        System.arraycopy(numbers, insertionPoint, numbers, insertionPoint + 1, size - insertionPoint);
+        numbers[insertionPoint] = number;
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean contains(final Object number) {
+        return number instanceof Integer && Arrays.binarySearch(numbers, 0, size, (Integer) number) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        return new Iterator<>() {
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                return position < size;
+            }
+
+            @Override
+            public Integer next() {
+                if (position >= size) {
+                    throw new NoSuchElementException();
+                }
+                return numbers[position++];
+            }
+        };
+    }
+
+}
@@ -0,0 +1,173 @@
+package textverarbeitung;
+
+import java.util.Arrays;
+
+/**
+ * Set of {@link Paragraph}s compared by identity, as used for the postings of the inverted index and the paragraphs
+ * waiting to be indexed by the {@link IndexManager}.
+ * <p>
+ * Most sets hold a few paragraphs only, so they are kept in a plain array which is scanned linearly and grows with the
+ * number of paragraphs. Only beyond {@value #MAX_LINEAR_SIZE} paragraphs the array turns into an open addressing table
+ * over the identity hash codes, with linear probing and at most two thirds of its slots in use. A set therefore holds
+ * no node objects, and a set of a single paragraph only costs an array of two slots.
+ */
+class ParagraphSet {
+
+    private static final int INITIAL_CAPACITY = 2;
+    private static final int MAX_LINEAR_SIZE = 8;
+
+    private Paragraph[] paragraphs = new Paragraph[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Adds the given {@link Paragraph} unless it is contained already.
+     *
+     * @param paragraph the paragraph to add
+     * @return true if the paragraph has been added, false if it was contained already
+     */
+    boolean add(final Paragraph paragraph) {
+        if (!isHashed()) {
+            for (int i = 0; i < size; i++) {
+                if (paragraphs[i] == paragraph) {
+                    return false;
+                }
+            }
+            if (size < paragraphs.length) {
+                paragraphs[size++] = paragraph;
+                return true;
+            }
+            if (size < MAX_LINEAR_SIZE) {
+                paragraphs = Arrays.copyOf(paragraphs, Math.min(size * 2, MAX_LINEAR_SIZE));
+                paragraphs[size++] = paragraph;
+                return true;
+            }
+            rehash(MAX_LINEAR_SIZE * 4);
+        }
+        final int slot = findSlot(paragraphs, paragraph);
+        if (paragraphs[slot] != null) {
+            return false;
+        }
+        paragraphs[slot] = paragraph;
+        if (++size * 3 > paragraphs.length * 2) {
+            rehash(paragraphs.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * Adds all paragraphs of the given other set.
+     *
+     * @param other the set whose paragraphs to add
+     */
+    void addAll(final ParagraphSet other) {
+        for (Paragraph paragraph : other.paragraphs) {
+            if (paragraph != null) {
+                add(paragraph);
+            }
+        }
+    }
+
+    /**
+     * Removes the given {@link Paragraph} if it is contained.
+     *
+     * @param paragraph the paragraph to remove
+     * @return true if the paragraph has been removed, false if it was not contained
+     */
+    boolean remove(final Paragraph paragraph) {
+        if (!isHashed()) {
+            for (int i = 0; i < size; i++) {
+                if (paragraphs[i] == paragraph) {
+                    paragraphs[i] = paragraphs[--size];
+                    paragraphs[size] = null;
+                    return true;
+                }
+            }
+            return false;
+        }
+        int slot = findSlot(paragraphs, paragraph);
+        if (paragraphs[slot] == null) {
+            return false;
+        }
+        paragraphs[slot] = null;
+        size--;
+        // Moves the following paragraphs of the probe sequence back, so no lookup stops at the freed slot too early
+        final int mask = paragraphs.length - 1;
+        for (int next = (slot + 1) & mask; paragraphs[next] != null; next = (next + 1) & mask) {
+            final int home = homeSlot(paragraphs[next], mask);
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                paragraphs[slot] = paragraphs[next];
+                paragraphs[next] = null;
+                slot = next;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes all paragraphs and releases the table they were held in.
+     */
+    void clear() {
+        paragraphs = new Paragraph[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * Returns the paragraphs of the set in a new array, in no particular order.
+     *
+     * @return the paragraphs of the set
+     */
+    Paragraph[] toArray() {
+        if (!isHashed()) {
+            return Arrays.copyOf(paragraphs, size);
+        }
+        final Paragraph[] paragraphArray = new Paragraph[size];
+        int i = 0;
+        for (Paragraph paragraph : paragraphs) {
+            if (paragraph != null) {
+                paragraphArray[i++] = paragraph;
+            }
+        }
+        return paragraphArray;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    private boolean isHashed() {
+        return paragraphs.length > MAX_LINEAR_SIZE;
+    }
+
+    private void rehash(final int capacity) {
+        final Paragraph[] oldParagraphs = paragraphs;
+        paragraphs = new Paragraph[capacity];
+        for (Paragraph paragraph : oldParagraphs) {
+            if (paragraph != null) {
+                paragraphs[findSlot(paragraphs, paragraph)] = paragraph;
+            }
+        }
+    }
+
+    /**
+     * Finds the slot holding the given paragraph, or the free slot where it belongs. The table length is a power of
+     * two and never full, so probing always ends.
+     */
+    private static int findSlot(final Paragraph[] table, final Paragraph paragraph) {
+        final int mask = table.length - 1;
+        int slot = homeSlot(paragraph, mask);
+        while (table[slot] != null && table[slot] != paragraph) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int homeSlot(final Paragraph paragraph, final int mask) {
+        final int hash = System.identityHashCode(paragraph);
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+}
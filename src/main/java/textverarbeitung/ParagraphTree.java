@@ -0,0 +1,385 @@
+package textverarbeitung;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * Document model holding the {@link Paragraph}s in order.
+ * <p>
+ * It is an implicit treap: a binary tree ordered by position where every node knows the size of its subtree and
+ * random priorities keep the tree balanced with high probability. Accessing, inserting and removing a paragraph at
+ * any position therefore takes O(log n), in contrast to an {@link java.util.ArrayList} which has to shift all
+ * following paragraphs. Iterating the whole document walks the tree in order and takes O(n).
+ * <p>
+ * The treap is persistent: its nodes are never changed once they are part of a tree, a change copies the O(log n)
+ * nodes on the path to the changed position instead. A {@link #snapshot()} therefore merely shares the current root
+ * and takes O(1). It stays unchanged while this tree is changed further, and only the copied nodes take additional
+ * memory for as long as it is referenced.
+ * <p>
+ * A new node becomes the parent of its children and the node of its paragraph, so the nodes of the latest version
+ * of this tree are linked to their parents and every paragraph to its node. {@link #indexOf(Object)} thereby finds
+ * the position of a paragraph in O(log n), walking up from its node; snapshots do not keep track of that.
+ */
+class ParagraphTree extends AbstractList<Paragraph> {
+
+    private final SplittableRandom random;
+    private final boolean snapshot;
+
+    private volatile Node root;
+
+    /**
+     * Creates a new empty ParagraphTree.
+     */
+    ParagraphTree() {
+        random = new SplittableRandom();
+        snapshot = false;
+        root = null;
+    }
+
+    private ParagraphTree(final Node root) {
+        random = null;
+        snapshot = true;
+        this.root = root;
+    }
+
+    /**
+     * Returns an unmodifiable snapshot of the current paragraphs in O(1), which shares all nodes with this tree.
+     *
+     * @return the snapshot, which stays unchanged while this tree is changed further
+     */
+    ParagraphTree snapshot() {
+        return new ParagraphTree(root);
+    }
+
+    @Override
+    public Paragraph get(final int index) {
+        return nodeAt(root, index).paragraph;
+    }
+
+    @Override
+    public Paragraph set(final int index, final Paragraph paragraph) {
+        checkModifiable();
+        final Paragraph previousParagraph = get(index);
+        root = set(root, index, paragraph);
+        return previousParagraph;
+    }
+
+    @Override
+    public void add(final int index, final Paragraph paragraph) {
+        checkModifiable();
+        checkPositionIndex(index);
+        final Node[] parts = split(root, index);
+        root = merge(merge(parts[0], new Node(paragraph, random.nextInt(), null, null)), parts[1]);
+        modCount++;
+    }
+
+    @Override
+    public boolean addAll(final int index, final Collection<? extends Paragraph> paragraphs) {
+        checkModifiable();
+        checkPositionIndex(index);
+        if (paragraphs.isEmpty()) {
+            return false;
+        }
+        final Node[] parts = split(root, index);
+        root = merge(merge(parts[0], build(paragraphs)), parts[1]);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(final Collection<? extends Paragraph> paragraphs) {
+        return addAll(size(), paragraphs);
+    }
+
+    @Override
+    public Paragraph remove(final int index) {
+        checkModifiable();
+        checkElementIndex(index);
+        final Paragraph[] removedParagraph = new Paragraph[1];
+        root = remove(root, index, removedParagraph);
+        modCount++;
+        return removedParagraph[0];
+    }
+
+    @Override
+    public void clear() {
+        checkModifiable();
+        root = null;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Returns the position of the given paragraph in O(log n) by walking up from its node to the root. In a snapshot
+     * the paragraphs are searched one by one instead.
+     *
+     * @param object the paragraph to look for
+     * @return the position of the paragraph, or -1 if it is not part of this tree
+     */
+    @Override
+    public int indexOf(final Object object) {
+        if (snapshot || !(object instanceof Paragraph)) {
+            return super.indexOf(object);
+        }
+        Node node = ((Paragraph) object).getTreeNode();
+        if (node == null) {
+            return -1;
+        }
+        final Node currentRoot = root;
+        int index = size(node.left);
+        while (node != currentRoot) {
+            final Node parent = node.parent;
+            // A node which has been copied or removed is no longer linked to the current root
+            if (parent == null || (parent.left != node && parent.right != node)) {
+                return -1;
+            }
+            if (parent.right == node) {
+                index += size(parent.left) + 1;
+            }
+            node = parent;
+        }
+        return index;
+    }
+
+    @Override
+    public int lastIndexOf(final Object object) {
+        return snapshot ? super.lastIndexOf(object) : indexOf(object);
+    }
+
+    @Override
+    public boolean contains(final Object object) {
+        return indexOf(object) >= 0;
+    }
+
+    @Override
+    public Iterator<Paragraph> iterator() {
+        return new InOrderIterator();
+    }
+
+    /**
+     * Finds the node at the given index within the given tree, which is read only once, so a concurrent change of
+     * this tree cannot affect the lookup.
+     */
+    private static Node nodeAt(Node node, int index) {
+        if (index < 0 || index >= size(node)) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size(node));
+        }
+        while (true) {
+            final int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    private static Node set(final Node node, final int index, final Paragraph paragraph) {
+        final int leftSize = size(node.left);
+        if (index < leftSize) {
+            return node.withChildren(set(node.left, index, paragraph), node.right);
+        } else if (index > leftSize) {
+            return node.withChildren(node.left, set(node.right, index - leftSize - 1, paragraph));
+        }
+        return new Node(paragraph, node.priority, node.left, node.right);
+    }
+
+    /**
+     * Splits the given subtree into the first {@code count} nodes and the remaining ones.
+     *
+     * @return the left and the right part as an array of two nodes
+     */
+    private static Node[] split(final Node node, final int count) {
+        if (node == null) {
+            return new Node[2];
+        }
+        final Node[] parts;
+        if (count <= size(node.left)) {
+            parts = split(node.left, count);
+            parts[1] = node.withChildren(parts[1], node.right);
+        } else {
+            parts = split(node.right, count - size(node.left) - 1);
+            parts[0] = node.withChildren(node.left, parts[0]);
+        }
+        return parts;
+    }
+
+    /**
+     * Concatenates two subtrees, where all nodes of the left one come before the nodes of the right one.
+     */
+    private static Node merge(final Node left, final Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            return left.withChildren(left.left, merge(left.right, right));
+        }
+        return right.withChildren(merge(left, right.left), right.right);
+    }
+
+    private static Node remove(final Node node, final int index, final Paragraph[] removedParagraph) {
+        final int leftSize = size(node.left);
+        if (index < leftSize) {
+            return node.withChildren(remove(node.left, index, removedParagraph), node.right);
+        } else if (index > leftSize) {
+            return node.withChildren(node.left, remove(node.right, index - leftSize - 1, removedParagraph));
+        }
+        removedParagraph[0] = node.paragraph;
+        return merge(node.left, node.right);
+    }
+
+    /**
+     * Builds a subtree of the given paragraphs in O(n). The shape is determined first by appending the positions
+     * along the right spine, which is kept on a stack, so the priorities end up in heap order as if every paragraph
+     * had been inserted one by one. The nodes are created afterwards, children first.
+     */
+    private Node build(final Collection<? extends Paragraph> paragraphs) {
+        final Paragraph[] paragraphArray = paragraphs.toArray(new Paragraph[0]);
+        final int[] priorities = new int[paragraphArray.length];
+        final int[] leftChildren = new int[paragraphArray.length];
+        final int[] rightChildren = new int[paragraphArray.length];
+        Arrays.fill(leftChildren, -1);
+        Arrays.fill(rightChildren, -1);
+        final int[] rightSpine = new int[paragraphArray.length];
+        int spineSize = 0;
+        for (int i = 0; i < paragraphArray.length; i++) {
+            priorities[i] = random.nextInt();
+            int lastPopped = -1;
+            while (spineSize > 0 && priorities[rightSpine[spineSize - 1]] < priorities[i]) {
+                lastPopped = rightSpine[--spineSize];
+            }
+            leftChildren[i] = lastPopped;
+            if (spineSize > 0) {
+                rightChildren[rightSpine[spineSize - 1]] = i;
+            }
+            rightSpine[spineSize++] = i;
+        }
+        return createSubtree(rightSpine[0], paragraphArray, priorities, leftChildren, rightChildren);
+    }
+
+    private static Node createSubtree(final int position, final Paragraph[] paragraphs, final int[] priorities,
+                                      final int[] leftChildren, final int[] rightChildren) {
+        if (position < 0) {
+            return null;
+        }
+        return new Node(paragraphs[position], priorities[position],
+                createSubtree(leftChildren[position], paragraphs, priorities, leftChildren, rightChildren),
+                createSubtree(rightChildren[position], paragraphs, priorities, leftChildren, rightChildren));
+    }
+
+    private static int size(final Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private void checkModifiable() {
+        if (snapshot) {
+            throw new UnsupportedOperationException("A snapshot of the paragraphs cannot be changed");
+        }
+    }
+
+    private void checkElementIndex(final int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+    }
+
+    private void checkPositionIndex(final int index) {
+        if (index < 0 || index > size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+    }
+
+    /**
+     * Immutable node of the treap holding one {@link Paragraph}. Only the link to the parent is changed, whenever
+     * the node becomes the child of a new node.
+     */
+    static final class Node {
+
+        private final Paragraph paragraph;
+        private final int priority;
+        private final Node left;
+        private final Node right;
+        private final int size;
+        private Node parent;
+
+        private Node(final Paragraph paragraph, final int priority, final Node left, final Node right) {
+            this.paragraph = paragraph;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            size = 1 + size(left) + size(right);
+            if (left != null) {
+                left.parent = this;
+            }
+            if (right != null) {
+                right.parent = this;
+            }
+            paragraph.setTreeNode(this);
+        }
+
+        /**
+         * Returns a copy of this node with the given children, or this node itself if they are unchanged.
+         */
+        private Node withChildren(final Node newLeft, final Node newRight) {
+            return newLeft == left && newRight == right ? this : new Node(paragraph, priority, newLeft, newRight);
+        }
+
+    }
+
+    /**
+     * Iterates the paragraphs in document order with a stack of the nodes whose left subtree is being visited.
+     */
+    private class InOrderIterator implements Iterator<Paragraph> {
+
+        private final Deque<Node> pendingNodes = new ArrayDeque<>();
+        private final int expectedModCount = modCount;
+
+        private InOrderIterator() {
+            pushLeftSpine(root);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !pendingNodes.isEmpty();
+        }
+
+        @Override
+        public Paragraph next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (pendingNodes.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            final Node node = pendingNodes.pop();
+            pushLeftSpine(node.right);
+            return node.paragraph;
+        }
+
+        private void pushLeftSpine(Node node) {
+            while (node != null) {
+                pendingNodes.push(node);
+                node = node.left;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,62 @@
+package textverarbeitung;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Caches compiled regular expressions, so replacing with the same expressions again and again, i.e. by scripts, only
+ * compiles each of them once.
+ * <p>
+ * The least recently used patterns are evicted once the capacity is exceeded. A {@link Pattern} is immutable, so the
+ * cached patterns are shared by all threads; only the access to the cache itself is synchronized. Invalid expressions
+ * are not cached.
+ */
+class PatternCache {
+
+    private final Map<String, Pattern> patterns;
+
+    /**
+     * Creates a new PatternCache.
+     *
+     * @param capacity the maximum number of compiled patterns which are kept
+     */
+    PatternCache(final int capacity) {
+        patterns = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Pattern> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the compiled pattern of the given regular expression, which is only compiled if it is not cached yet.
+     * It is compiled without holding the lock of the cache, so another thread may compile the same expression at the
+     * same time, of which only one pattern is kept.
+     *
+     * @param expression the regular expression
+     * @return the compiled pattern
+     * @throws java.util.regex.PatternSyntaxException if the expression is invalid
+     */
+    Pattern get(final String expression) {
+        synchronized (patterns) {
+            final Pattern pattern = patterns.get(expression);
+            if (pattern != null) {
+                return pattern;
+            }
+        }
+        final Pattern pattern = Pattern.compile(expression);
+        synchronized (patterns) {
+            final Pattern cachedPattern = patterns.putIfAbsent(expression, pattern);
+            return cachedPattern == null ? pattern : cachedPattern;
+        }
+    }
+
+    int size() {
+        synchronized (patterns) {
+            return patterns.size();
+        }
+    }
+
+}
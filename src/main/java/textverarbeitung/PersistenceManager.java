@@ -0,0 +1,177 @@
+package textverarbeitung;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static java.lang.System.lineSeparator;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Loads and saves documents as UTF-8 text files with one {@link Paragraph} per line.
+ * <p>
+ * Files are read and written through a direct buffer of a {@link FileChannel}, so neither loading nor saving ever
+ * holds a copy of the whole file: lines are decoded straight from the buffer, and paragraphs are encoded straight into
+ * it. The files are not memory-mapped, since a mapping is only released once it is garbage collected, and on some
+ * platforms (Windows) a mapped file can neither be truncated nor replaced until then.
+ */
+public class PersistenceManager {
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    private static final int DEFAULT_MAX_LINE_LENGTH = 1 << 30;
+    private static final byte LINE_FEED = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    private final int bufferSize;
+    private final int maxLineLength;
+
+    /**
+     * Creates a new PersistenceManager accessing files in blocks of 64 KiB and reading lines of up to 1 GiB.
+     */
+    public PersistenceManager() {
+        this(DEFAULT_BUFFER_SIZE, DEFAULT_MAX_LINE_LENGTH);
+    }
+
+    /**
+     * Creates a new PersistenceManager.
+     *
+     * @param bufferSize    the number of bytes of a file which are read or written at once, at least four
+     * @param maxLineLength the maximum number of bytes of a line read
+     */
+    PersistenceManager(final int bufferSize, final int maxLineLength) {
+        this.bufferSize = bufferSize;
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * Reads the given file line by line. Every line, without its line separator, is passed to the given consumer.
+     * A line separator at the end of the file does not start another line.
+     *
+     * @param path         the file to read
+     * @param lineConsumer receives the lines of the file in order
+     * @return the number of lines read
+     * @throws IOException if the file cannot be read or contains a line longer than the maximum line length
+     */
+    public int load(final Path path, final Consumer<String> lineConsumer) throws IOException {
+        int lineCount = 0;
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+            byte[] lineBytes = new byte[256];
+            int lineLength = 0;
+            while (channel.read(buffer.clear()) >= 0) {
+                final int end = buffer.position();
+                int lineStart = 0;
+                for (int i = 0; i <= end; i++) {
+                    // A line continues in the next block, unless it is terminated within this one
+                    final boolean lineEnds = i < end && buffer.get(i) == LINE_FEED;
+                    if (lineEnds || i == end) {
+                        final int length = i - lineStart;
+                        if (lineLength + length > maxLineLength) {
+                            throw new IOException("File contains a line longer than " + maxLineLength + " bytes.");
+                        }
+                        if (lineBytes.length < lineLength + length) {
+                            lineBytes = Arrays.copyOf(lineBytes, Math.max(lineLength + length, lineBytes.length * 2));
+                        }
+                        buffer.get(lineStart, lineBytes, lineLength, length);
+                        lineLength += length;
+                        lineStart = i + 1;
+                    }
+                    if (lineEnds) {
+                        lineConsumer.accept(decodeLine(lineBytes, lineLength));
+                        lineCount++;
+                        lineLength = 0;
+                    }
+                }
+            }
+            // The end of the file terminates its last line, unless it was terminated already
+            if (lineLength > 0) {
+                lineConsumer.accept(decodeLine(lineBytes, lineLength));
+                lineCount++;
+            }
+        }
+        return lineCount;
+    }
+
+    private static String decodeLine(final byte[] lineBytes, final int lineLength) {
+        final boolean carriageReturn = lineLength > 0 && lineBytes[lineLength - 1] == CARRIAGE_RETURN;
+        return new String(lineBytes, 0, carriageReturn ? lineLength - 1 : lineLength, UTF_8);
+    }
+
+    /**
+     * Writes the content of the given paragraphs to the given file, each followed by a line separator.
+     * An existing file is overwritten. The paragraphs are encoded directly into the buffer, which is written to the
+     * file whenever it is full.
+     *
+     * @param path       the file to write
+     * @param paragraphs the {@link Paragraph}s to save in order
+     * @throws IOException if the file cannot be written
+     */
+    public void save(final Path path, final List<Paragraph> paragraphs) throws IOException {
+        save(path, paragraphs, false);
+    }
+
+    /**
+     * Writes the content of the given paragraphs to the given file like {@link #save(Path, List)}. If it is to be
+     * durable, the file with its size is forced to the disk before this method returns.
+     *
+     * @param path       the file to write
+     * @param paragraphs the {@link Paragraph}s to save in order
+     * @param durable    whether the file has to survive a crash of the operating system once this method returns
+     * @throws IOException if the file cannot be written
+     */
+    void save(final Path path, final List<Paragraph> paragraphs, final boolean durable) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            final CharsetEncoder encoder = UTF_8.newEncoder();
+            final CharBuffer separator = CharBuffer.wrap(lineSeparator());
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+            for (Paragraph paragraph : paragraphs) {
+                encode(channel, buffer, encoder, CharBuffer.wrap(paragraph.getContent()));
+                encode(channel, buffer, encoder, separator.rewind());
+            }
+            write(channel, buffer);
+            if (durable) {
+                channel.force(true);
+            }
+        }
+    }
+
+    /**
+     * Encodes the given characters into the buffer, writing it to the file whenever it is full. Characters whose
+     * encoding does not fit into the buffer completely are encoded once it has been written.
+     */
+    private static void encode(final FileChannel channel, final ByteBuffer buffer, final CharsetEncoder encoder,
+                               final CharBuffer characters) throws IOException {
+        encoder.reset();
+        CoderResult result = encoder.encode(characters, buffer, true);
+        while (result.isOverflow()) {
+            write(channel, buffer);
+            result = encoder.encode(characters, buffer, true);
+        }
+        if (result.isError()) {
+            result.throwException();
+        }
+    }
+
+    /**
+     * Writes the content of the buffer to the file and clears it for the following characters.
+     */
+    private static void write(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+}
@@ -14,6 +14,8 @@ public final class TextConstants {
     public static final String TAB = "\t";
     public static final String AS_ITALIC = "\033[3m%s\033[0m";
     public static final String AS_BOLD = "\033[1m%s\033[0m";
-    public static final String AS_RED = "\u001B[31m%s\u001B[0m";
+    public static final String START_RED = "\u001B[31m";
+    public static final String END_FORMATTING = "\u001B[0m";
+    public static final String AS_RED = START_RED + "%s" + END_FORMATTING;
 
 }
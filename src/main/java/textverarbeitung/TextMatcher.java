@@ -0,0 +1,169 @@
+package textverarbeitung;
+
+import java.util.Arrays;
+
+/**
+ * Finds and replaces the occurrences of a fixed pattern in the contents of {@link Paragraph}s.
+ * <p>
+ * A TextMatcher is created once per search and reused for all paragraphs, so its skip table is only built once. Long
+ * patterns are found with a variant of the Boyer-Moore-Horspool algorithm: the two characters of the text ending at
+ * the one aligned with the last character of the pattern tell how far the pattern can be shifted, which skips up to
+ * the whole length of the pattern at once. Pairs of characters are used instead of single ones, since nearly every
+ * letter occurs somewhere in a long pattern of natural language, which would keep the shifts short. Patterns of less
+ * than 32 characters gain too little from skipping, so they are left to {@link String#indexOf(String)}, which the JVM
+ * compiles to vectorized instructions. A TextMatcher is immutable and can be shared between threads.
+ * <p>
+ * The skip table has 4096 entries, so different pairs of characters share an entry and get the smallest shift of all
+ * of them, which is never too far.
+ */
+final class TextMatcher {
+
+    private static final int MIN_SKIPPING_PATTERN_LENGTH = 32;
+    private static final int SKIP_TABLE_SIZE = 1 << 12;
+    private static final int SKIP_TABLE_MASK = SKIP_TABLE_SIZE - 1;
+    private static final int BIGRAM_SHIFT = 5;
+
+    private final String pattern;
+    private final int[] skipTable;
+    private final int lastBigramShift;
+
+    /**
+     * Creates a new TextMatcher for the given pattern and builds its skip table, if the pattern is long enough.
+     *
+     * @param pattern the text to find, which must not be empty
+     */
+    TextMatcher(final String pattern) {
+        if (pattern.isEmpty()) {
+            throw new IllegalArgumentException("pattern must not be empty");
+        }
+        this.pattern = pattern;
+        if (pattern.length() < MIN_SKIPPING_PATTERN_LENGTH) {
+            skipTable = null;
+            lastBigramShift = 0;
+        } else {
+            skipTable = buildSkipTable(pattern);
+            final int lastBigramSlot = bigramSlot(pattern.charAt(pattern.length() - 2),
+                    pattern.charAt(pattern.length() - 1));
+            lastBigramShift = skipTable[lastBigramSlot];
+            skipTable[lastBigramSlot] = 0;
+        }
+    }
+
+    String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Finds the first occurrence of the pattern in the given text starting at the given index.
+     *
+     * @param text      the text to search in
+     * @param fromIndex the index to start the search at
+     * @return the index of the occurrence, or -1 if there is none
+     */
+    int indexIn(final String text, final int fromIndex) {
+        if (skipTable == null) {
+            return text.indexOf(pattern, fromIndex);
+        }
+        final int lastIndex = pattern.length() - 1;
+        final int textLength = text.length();
+        // Index of the character of the text aligned with the last character of the pattern
+        int end = Math.max(fromIndex, 0) + lastIndex;
+        while (end < textLength) {
+            final int shift = skipTable[bigramSlot(text.charAt(end - 1), text.charAt(end))];
+            if (shift > 0) {
+                end += shift;
+            } else if (text.regionMatches(end - lastIndex, pattern, 0, pattern.length())) {
+                return end - lastIndex;
+            } else {
+                end += lastBigramShift;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Replaces all non-overlapping occurrences of the pattern in the given text, from left to right like
+     * {@link String#replace(CharSequence, CharSequence)}. The text is scanned once, remembering the occurrences, and
+     * then copied with the replacements into a buffer of the exact size of the result.
+     *
+     * @param text        the text to replace in
+     * @param replacement the text to insert instead of every occurrence
+     * @return the replaced text with the number of replacements, or null if the pattern does not occur
+     */
+    Replacement replaceIn(final String text, final String replacement) {
+        int offset = indexIn(text, 0);
+        if (offset < 0) {
+            return null;
+        }
+        int[] offsets = new int[4];
+        int count = 0;
+        do {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count++] = offset;
+            offset = indexIn(text, offset + pattern.length());
+        } while (offset >= 0);
+
+        final char[] buffer = new char[text.length() + count * (replacement.length() - pattern.length())];
+        int textIndex = 0;
+        int bufferIndex = 0;
+        for (int i = 0; i < count; i++) {
+            text.getChars(textIndex, offsets[i], buffer, bufferIndex);
+            bufferIndex += offsets[i] - textIndex;
+            replacement.getChars(0, replacement.length(), buffer, bufferIndex);
+            bufferIndex += replacement.length();
+            textIndex = offsets[i] + pattern.length();
+        }
+        text.getChars(textIndex, text.length(), buffer, bufferIndex);
+        return new Replacement(new String(buffer), count);
+    }
+
+    /**
+     * Builds the shift for every pair of characters of the text ending at the character aligned with the last
+     * character of the pattern: the distance from its last occurrence within the pattern to the end of the pattern,
+     * or the length of the pattern minus one if it does not occur. The pair at the end of the pattern gets no shift,
+     * since the pattern may match there.
+     */
+    private static int[] buildSkipTable(final String pattern) {
+        final int[] skipTable = new int[SKIP_TABLE_SIZE];
+        final int lastIndex = pattern.length() - 1;
+        Arrays.fill(skipTable, lastIndex);
+        // Later pairs have smaller shifts, which also win for the pairs sharing an entry
+        for (int i = 1; i < lastIndex; i++) {
+            skipTable[bigramSlot(pattern.charAt(i - 1), pattern.charAt(i))] = lastIndex - i;
+        }
+        return skipTable;
+    }
+
+    private static int bigramSlot(final char first, final char second) {
+        return (first << BIGRAM_SHIFT ^ second) & SKIP_TABLE_MASK;
+    }
+
+    /**
+     * Result of replacing the occurrences of a pattern in a text, also of a regular expression.
+     */
+    static final class Replacement {
+
+        private final String text;
+        private final int count;
+
+        Replacement(final String text, final int count) {
+            this.text = text;
+            this.count = count;
+        }
+
+        String getText() {
+            return text;
+        }
+
+        /**
+         * Returns the number of occurrences which have been replaced.
+         */
+        int getCount() {
+            return count;
+        }
+
+    }
+
+}
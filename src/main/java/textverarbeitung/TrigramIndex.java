@@ -0,0 +1,222 @@
+package textverarbeitung;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of the trigrams, i.e. the sequences of three characters, of the contents of {@link Paragraph}s, to find the
+ * paragraphs which can contain a text without scanning all of them.
+ * <p>
+ * Every indexed paragraph gets an id, and every trigram a posting list of the ids of the paragraphs containing it.
+ * Ids are handed out in ascending order, so the posting lists are sorted plain {@code int} arrays which are appended
+ * to and intersected by binary search. A removed paragraph only releases its id; its ids stay in the posting lists
+ * and are skipped until the index is compacted, which rebuilds it as soon as there are more removed ids than indexed
+ * paragraphs. The trigrams are kept in a table with open addressing and linear probing, keyed by the three
+ * characters packed into a {@code long}.
+ */
+class TrigramIndex {
+
+    private static final int TRIGRAM_LENGTH = 3;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MIN_REMOVED_IDS_TO_COMPACT = 1024;
+
+    private final Map<Paragraph, Integer> paragraphIds = new IdentityHashMap<>();
+    private Paragraph[] paragraphsById = new Paragraph[INITIAL_CAPACITY];
+    private int nextId;
+    private int removedIds;
+
+    private long[] trigrams = new long[INITIAL_CAPACITY];
+    private PostingList[] postingLists = new PostingList[INITIAL_CAPACITY];
+    private int trigramCount;
+
+    /**
+     * Adds the trigrams of the content of the given {@link Paragraph} to the index.
+     *
+     * @param paragraph the paragraph which has been added or which replaces a changed one
+     */
+    void addParagraph(final Paragraph paragraph) {
+        if (nextId == paragraphsById.length) {
+            paragraphsById = Arrays.copyOf(paragraphsById, nextId * 2);
+        }
+        final int id = nextId++;
+        paragraphsById[id] = paragraph;
+        paragraphIds.put(paragraph, id);
+        final String content = paragraph.getContent();
+        for (int i = 0; i + TRIGRAM_LENGTH <= content.length(); i++) {
+            postingListOf(trigramAt(content, i)).add(id);
+        }
+    }
+
+    /**
+     * Adds the trigrams of the contents of all given {@link Paragraph}s to the index.
+     *
+     * @param paragraphs the paragraphs which have been added
+     */
+    void addParagraphs(final List<Paragraph> paragraphs) {
+        for (Paragraph paragraph : paragraphs) {
+            addParagraph(paragraph);
+        }
+    }
+
+    /**
+     * Removes the given {@link Paragraph} from the index, which is compacted if too many removed ids have piled up.
+     *
+     * @param paragraph the paragraph which has been removed or replaced with a changed one
+     */
+    void removeParagraph(final Paragraph paragraph) {
+        final Integer id = paragraphIds.remove(paragraph);
+        if (id == null) {
+            return;
+        }
+        paragraphsById[id] = null;
+        removedIds++;
+        if (removedIds >= MIN_REMOVED_IDS_TO_COMPACT && removedIds > paragraphIds.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * Removes all paragraphs from the index.
+     */
+    void clear() {
+        paragraphIds.clear();
+        paragraphsById = new Paragraph[INITIAL_CAPACITY];
+        nextId = 0;
+        removedIds = 0;
+        trigrams = new long[INITIAL_CAPACITY];
+        postingLists = new PostingList[INITIAL_CAPACITY];
+        trigramCount = 0;
+    }
+
+    /**
+     * Finds the paragraphs which contain all trigrams of the given text, so only they can contain the text itself.
+     * The posting lists are intersected starting with the shortest one.
+     *
+     * @param text the text to search for
+     * @return the candidate paragraphs, or null if the text is too short to have any trigram and any paragraph is a
+     * candidate
+     */
+    Set<Paragraph> findCandidates(final String text) {
+        if (text.length() < TRIGRAM_LENGTH) {
+            return null;
+        }
+        final PostingList[] textPostingLists = new PostingList[text.length() - TRIGRAM_LENGTH + 1];
+        for (int i = 0; i < textPostingLists.length; i++) {
+            final int slot = findSlot(trigramAt(text, i));
+            if (postingLists[slot] == null) {
+                return Collections.emptySet();
+            }
+            textPostingLists[i] = postingLists[slot];
+        }
+        Arrays.sort(textPostingLists, (first, second) -> Integer.compare(first.size, second.size));
+
+        final Set<Paragraph> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+        final PostingList shortestList = textPostingLists[0];
+        for (int i = 0; i < shortestList.size; i++) {
+            final int id = shortestList.ids[i];
+            if (paragraphsById[id] != null && containsInAll(textPostingLists, id)) {
+                candidates.add(paragraphsById[id]);
+            }
+        }
+        return candidates;
+    }
+
+    int size() {
+        return paragraphIds.size();
+    }
+
+    private static boolean containsInAll(final PostingList[] postingLists, final int id) {
+        for (int i = 1; i < postingLists.length; i++) {
+            if (postingLists[i] != postingLists[0] && !postingLists[i].contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Rebuilds the index from the paragraphs still indexed, which get new ids in the order of their old ones.
+     */
+    private void compact() {
+        final Paragraph[] indexedParagraphs = new Paragraph[paragraphIds.size()];
+        int count = 0;
+        for (int id = 0; id < nextId; id++) {
+            if (paragraphsById[id] != null) {
+                indexedParagraphs[count++] = paragraphsById[id];
+            }
+        }
+        clear();
+        addParagraphs(Arrays.asList(indexedParagraphs));
+    }
+
+    private static long trigramAt(final String text, final int index) {
+        return (long) text.charAt(index) << 32 | (long) text.charAt(index + 1) << 16 | text.charAt(index + 2);
+    }
+
+    private PostingList postingListOf(final long trigram) {
+        int slot = findSlot(trigram);
+        if (postingLists[slot] == null) {
+            if ((trigramCount + 1) * 4 > trigrams.length * 3) {
+                resize();
+                slot = findSlot(trigram);
+            }
+            trigrams[slot] = trigram;
+            postingLists[slot] = new PostingList();
+            trigramCount++;
+        }
+        return postingLists[slot];
+    }
+
+    private int findSlot(final long trigram) {
+        final int mask = trigrams.length - 1;
+        int slot = (int) (trigram * 0x9E3779B97F4A7C15L >>> 40) & mask;
+        while (postingLists[slot] != null && trigrams[slot] != trigram) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        final long[] oldTrigrams = trigrams;
+        final PostingList[] oldPostingLists = postingLists;
+        trigrams = new long[oldTrigrams.length * 2];
+        postingLists = new PostingList[oldPostingLists.length * 2];
+        for (int slot = 0; slot < oldTrigrams.length; slot++) {
+            if (oldPostingLists[slot] != null) {
+                final int newSlot = findSlot(oldTrigrams[slot]);
+                trigrams[newSlot] = oldTrigrams[slot];
+                postingLists[newSlot] = oldPostingLists[slot];
+            }
+        }
+    }
+
+    /**
+     * Sorted ids of the paragraphs containing a trigram. A paragraph adds all its trigrams at once with an id higher
+     * than all ids before, so a repeated trigram is recognized by the last id.
+     */
+    private static final class PostingList {
+
+        private int[] ids = new int[2];
+        private int size;
+
+        private void add(final int id) {
+            if (size > 0 && ids[size - 1] == id) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        private boolean contains(final int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+    }
+
+}
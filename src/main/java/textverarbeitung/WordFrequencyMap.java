@@ -0,0 +1,169 @@
+package textverarbeitung;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Counts the frequency of the words of a {@link Paragraph} without boxing.
+ * <p>
+ * Words and their counts are kept in two parallel arrays with open addressing and linear probing, so a paragraph holds
+ * no entry objects and no {@link Integer}s. The table is allocated with the first word, so paragraphs without words
+ * do not hold any table at all. Viewed as a {@link java.util.Map} it is read-only; entries are only created when
+ * iterating its entry set.
+ */
+class WordFrequencyMap extends AbstractMap<String, Integer> {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private String[] words;
+    private int[] counts;
+    private int size;
+
+    /**
+     * Increments the frequency of the given word by one.
+     *
+     * @param word the word which has been found
+     */
+    void increment(final String word) {
+        if (words == null) {
+            words = new String[INITIAL_CAPACITY];
+            counts = new int[INITIAL_CAPACITY];
+        } else if ((size + 1) * 4 > words.length * 3) {
+            resize();
+        }
+        final int slot = findSlot(words, word);
+        if (words[slot] == null) {
+            words[slot] = word;
+            size++;
+        }
+        counts[slot]++;
+    }
+
+    /**
+     * Returns the frequency of the given word.
+     *
+     * @param word the word to look up
+     * @return the frequency of the word, 0 if it does not occur
+     */
+    int getCount(final Object word) {
+        if (words == null || !(word instanceof String)) {
+            return 0;
+        }
+        final int slot = findSlot(words, (String) word);
+        return words[slot] == null ? 0 : counts[slot];
+    }
+
+    /**
+     * Passes every word with its frequency to the given consumer without boxing the frequency.
+     *
+     * @param consumer receives the words and their frequencies
+     */
+    void forEachCount(final ObjIntConsumer<String> consumer) {
+        if (words == null) {
+            return;
+        }
+        for (int slot = 0; slot < words.length; slot++) {
+            if (words[slot] != null) {
+                consumer.accept(words[slot], counts[slot]);
+            }
+        }
+    }
+
+    @Override
+    public Integer get(final Object word) {
+        final int count = getCount(word);
+        return count == 0 ? null : count;
+    }
+
+    @Override
+    public boolean containsKey(final Object word) {
+        return getCount(word) != 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Entry<String, Integer>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Integer>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private void resize() {
+        final String[] oldWords = words;
+        final int[] oldCounts = counts;
+        words = new String[oldWords.length * 2];
+        counts = new int[oldWords.length * 2];
+        for (int oldSlot = 0; oldSlot < oldWords.length; oldSlot++) {
+            if (oldWords[oldSlot] != null) {
+                final int slot = findSlot(words, oldWords[oldSlot]);
+                words[slot] = oldWords[oldSlot];
+                counts[slot] = oldCounts[oldSlot];
+            }
+        }
+    }
+
+    /**
+     * Finds the slot holding the given word, or the free slot where it belongs. The table length is a power of two
+     * and never full, so probing always ends.
+     */
+    private static int findSlot(final String[] table, final String word) {
+        final int hash = word.hashCode();
+        final int mask = table.length - 1;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (table[slot] != null && !table[slot].equals(word)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Iterates the occupied slots of the table, creating an entry for each of them.
+     */
+    private class EntryIterator implements Iterator<Entry<String, Integer>> {
+
+        private int nextSlot = advance(0);
+
+        @Override
+        public boolean hasNext() {
+            return nextSlot >= 0;
+        }
+
+        @Override
+        public Entry<String, Integer> next() {
+            if (nextSlot < 0) {
+                throw new NoSuchElementException();
+            }
+            final Entry<String, Integer> entry = new SimpleImmutableEntry<>(words[nextSlot], counts[nextSlot]);
+            nextSlot = advance(nextSlot + 1);
+            return entry;
+        }
+
+        private int advance(int slot) {
+            if (words == null) {
+                return -1;
+            }
+            while (slot < words.length && words[slot] == null) {
+                slot++;
+            }
+            return slot < words.length ? slot : -1;
+        }
+
+    }
+
+}
@@ -0,0 +1,58 @@
+package textverarbeitung;
+
+/**
+ * Entry of the inverted index held by the {@link IndexManager} for a single word.
+ * It stores the total frequency of the word over all {@link Paragraph}s and, as a {@link ParagraphSet}, the postings
+ * of the paragraphs containing it. The paragraphs are referenced by identity instead of by their number, so inserting
+ * or removing a paragraph in front of them does not require any renumbering.
+ */
+class WordOccurrences extends ParagraphSet {
+
+    private int totalFrequency;
+
+    /**
+     * Adds the occurrences of the word in the given {@link Paragraph}.
+     *
+     * @param paragraph the paragraph containing the word
+     * @param frequency how often the word occurs in the paragraph
+     */
+    void add(final Paragraph paragraph, final int frequency) {
+        add(paragraph);
+        totalFrequency += frequency;
+    }
+
+    /**
+     * Removes the occurrences of the word in the given {@link Paragraph}.
+     *
+     * @param paragraph the paragraph containing the word
+     * @param frequency how often the word occurs in the paragraph
+     */
+    void remove(final Paragraph paragraph, final int frequency) {
+        remove(paragraph);
+        totalFrequency -= frequency;
+    }
+
+    /**
+     * Adds all occurrences of the word held by the given other entry, i.e. from another part of the document.
+     *
+     * @param other the entry of the same word to take over
+     */
+    void addAll(final WordOccurrences other) {
+        addAll((ParagraphSet) other);
+        totalFrequency += other.totalFrequency;
+    }
+
+    /**
+     * Returns the paragraphs containing the word in a new array, in no particular order.
+     *
+     * @return the paragraphs containing the word
+     */
+    Paragraph[] getParagraphs() {
+        return toArray();
+    }
+
+    int getTotalFrequency() {
+        return totalFrequency;
+    }
+
+}
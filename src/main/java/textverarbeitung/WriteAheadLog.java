@@ -0,0 +1,404 @@
+package textverarbeitung;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Append-only write-ahead log of the changes of an editing session, which can be recovered after a crash.
+ * <p>
+ * Every change is appended as a record of text fields, one record per line. Appending only queues the record: a
+ * single writer thread takes all records queued in the meantime, writes them at once and forces them to the disk with
+ * one fsync (group commit). A record is therefore durable a few milliseconds after it has been appended, and
+ * {@link #sync()} waits until it is.
+ * <p>
+ * The log is split into generations. A checkpoint starts a new generation and saves a snapshot of all paragraphs with
+ * the {@link PersistenceManager}, after which the older snapshots and logs are deleted. Recovery loads the latest
+ * snapshot and replays the logs from its generation on, so a crash at any point of a checkpoint loses nothing. The
+ * snapshot, its name in the directory and the first records of the new generation are forced to the disk before the
+ * older generations are deleted, so this also holds for a crash of the operating system or a power loss.
+ */
+public class WriteAheadLog implements Closeable {
+
+    private static final int DEFAULT_CHECKPOINT_INTERVAL = 10_000;
+    private static final Pattern LOG_FILE_NAME = Pattern.compile("log-(\\d+)\\.txt");
+    private static final Pattern SNAPSHOT_FILE_NAME = Pattern.compile("snapshot-(\\d+)\\.txt");
+    private static final char FIELD_SEPARATOR = '\t';
+    private static final char RECORD_SEPARATOR = '\n';
+    private static final char ESCAPE = '\\';
+
+    private final Path directory;
+    private final PersistenceManager persistenceManager;
+    private final int checkpointInterval;
+    private final BlockingQueue<Object> pendingRecords = new LinkedBlockingQueue<>();
+
+    private Thread writerThread;
+    private volatile IOException failure;
+    private FileChannel channel;
+    private long generation;
+    private int recordsSinceCheckpoint;
+
+    /**
+     * Creates a new WriteAheadLog in the given directory which suggests a checkpoint after 10'000 records at least.
+     *
+     * @param directory          the directory holding the logs and snapshots, created if necessary
+     * @param persistenceManager the {@link PersistenceManager} to load and save the snapshots with
+     */
+    public WriteAheadLog(final Path directory, final PersistenceManager persistenceManager) {
+        this(directory, persistenceManager, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * Creates a new WriteAheadLog in the given directory.
+     *
+     * @param directory          the directory holding the logs and snapshots, created if necessary
+     * @param persistenceManager the {@link PersistenceManager} to load and save the snapshots with
+     * @param checkpointInterval the minimum number of records after which a checkpoint is suggested
+     */
+    public WriteAheadLog(final Path directory, final PersistenceManager persistenceManager,
+                         final int checkpointInterval) {
+        this.directory = directory;
+        this.persistenceManager = persistenceManager;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * Recovers the state of a previous session and opens the log for appending. The paragraphs of the latest snapshot
+     * (if any) are passed to the snapshot consumer, then the records logged since are passed to the record consumer in
+     * order. A record which has not been written completely before a crash is skipped. This method has to be called
+     * once before any record is appended.
+     *
+     * @param snapshotConsumer receives the paragraphs of the latest snapshot
+     * @param recordConsumer   receives the fields of the logged records
+     * @return the number of records replayed
+     * @throws IOException if the logs or snapshots cannot be read or the log cannot be opened
+     */
+    public int recover(final Consumer<List<Paragraph>> snapshotConsumer, final Consumer<String[]> recordConsumer)
+            throws IOException {
+        Files.createDirectories(directory);
+        final TreeSet<Long> snapshotGenerations = findGenerations(SNAPSHOT_FILE_NAME);
+        final TreeSet<Long> logGenerations = findGenerations(LOG_FILE_NAME);
+        final long snapshotGeneration = snapshotGenerations.isEmpty() ? 0 : snapshotGenerations.last();
+        if (!snapshotGenerations.isEmpty()) {
+            final List<Paragraph> paragraphs = new ArrayList<>();
+            persistenceManager.load(getSnapshotFile(snapshotGeneration), line -> paragraphs.add(new Paragraph(line)));
+            snapshotConsumer.accept(paragraphs);
+        }
+
+        int replayedRecords = 0;
+        for (long logGeneration : logGenerations.tailSet(snapshotGeneration)) {
+            final String log = new String(Files.readAllBytes(getLogFile(logGeneration)), UTF_8);
+            int recordStart = 0;
+            int recordEnd;
+            while ((recordEnd = log.indexOf(RECORD_SEPARATOR, recordStart)) >= 0) {
+                recordConsumer.accept(decodeRecord(log, recordStart, recordEnd));
+                replayedRecords++;
+                recordStart = recordEnd + 1;
+            }
+        }
+
+        generation = Math.max(snapshotGeneration, logGenerations.isEmpty() ? 0 : logGenerations.last()) + 1;
+        channel = FileChannel.open(getLogFile(generation), CREATE, WRITE, APPEND);
+        writerThread = new Thread(this::writeRecords, "write-ahead-log");
+        writerThread.start();
+        return replayedRecords;
+    }
+
+    /**
+     * Appends a record with the given fields to the log. It is only queued here and written by the writer thread.
+     * A null field is logged as an empty one.
+     *
+     * @param fields the fields of the record
+     * @throws UncheckedIOException if writing the log has failed before
+     */
+    public void append(final String... fields) {
+        if (failure != null) {
+            throw new UncheckedIOException("The write-ahead log could not be written.", failure);
+        }
+        pendingRecords.add(encodeRecord(fields));
+        recordsSinceCheckpoint++;
+    }
+
+    /**
+     * Returns if enough records have been appended since the last checkpoint to take the next one. At least as many
+     * records as there are paragraphs have to be appended in between, so saving the snapshots costs a constant amount
+     * per record no matter how large the document is.
+     *
+     * @param paragraphCount the number of paragraphs a snapshot would hold
+     * @return {@code true} if a checkpoint is due
+     */
+    public boolean isCheckpointDue(final int paragraphCount) {
+        return recordsSinceCheckpoint >= Math.max(checkpointInterval, paragraphCount);
+    }
+
+    /**
+     * Saves a snapshot of the given paragraphs and drops the logs and snapshots it replaces. The log switches to a new
+     * generation first, which starts with the given records describing the state beyond the paragraphs (i.e. the
+     * format). The paragraphs must not be changed until this method returns.
+     *
+     * @param paragraphs   all {@link Paragraph}s of the session
+     * @param stateRecords the records restoring the remaining state of the session
+     * @throws IOException if the snapshot cannot be saved or the log cannot be switched
+     */
+    public void checkpoint(final List<Paragraph> paragraphs, final List<String[]> stateRecords) throws IOException {
+        final long checkpointGeneration = generation + 1;
+        awaitWriter(new Marker(checkpointGeneration, false));
+        generation = checkpointGeneration;
+        for (String[] stateRecord : stateRecords) {
+            append(stateRecord);
+        }
+
+        final Path temporarySnapshot = directory.resolve("snapshot-" + checkpointGeneration + ".tmp");
+        persistenceManager.save(temporarySnapshot, paragraphs, true);
+        Files.move(temporarySnapshot, getSnapshotFile(checkpointGeneration), ATOMIC_MOVE, REPLACE_EXISTING);
+        sync();
+        forceDirectory();
+        for (long oldGeneration : findGenerations(SNAPSHOT_FILE_NAME).headSet(checkpointGeneration)) {
+            Files.deleteIfExists(getSnapshotFile(oldGeneration));
+        }
+        for (long oldGeneration : findGenerations(LOG_FILE_NAME).headSet(checkpointGeneration)) {
+            Files.deleteIfExists(getLogFile(oldGeneration));
+        }
+        recordsSinceCheckpoint = 0;
+    }
+
+    /**
+     * Waits until all records appended so far have been forced to the disk.
+     *
+     * @throws IOException if the log could not be written
+     */
+    public void sync() throws IOException {
+        awaitWriter(new Marker(0, false));
+    }
+
+    /**
+     * Writes all appended records, stops the writer thread and closes the log.
+     *
+     * @throws IOException if the log could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (writerThread == null) {
+            return;
+        }
+        try {
+            awaitWriter(new Marker(0, true));
+        } finally {
+            if (failure != null) {
+                writerThread.interrupt();
+            }
+            try {
+                writerThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writerThread = null;
+            channel.close();
+        }
+    }
+
+    /**
+     * Forces the entries of the directory to the disk, i.e. the renamed snapshot and the log of a new generation.
+     * Platforms which cannot open a directory (i.e. Windows) do not need this to keep a rename.
+     */
+    private void forceDirectory() throws IOException {
+        final FileChannel directoryChannel;
+        try {
+            directoryChannel = FileChannel.open(directory, READ);
+        } catch (IOException e) {
+            return;
+        }
+        try (directoryChannel) {
+            directoryChannel.force(true);
+        }
+    }
+
+    private void awaitWriter(final Marker marker) throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        pendingRecords.add(marker);
+        try {
+            marker.written.get();
+        } catch (ExecutionException e) {
+            throw (IOException) e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the write-ahead log.", e);
+        }
+    }
+
+    /**
+     * Loop of the writer thread. It blocks until a record is queued, then takes all queued records and writes and
+     * forces them at once. The markers among them complete once the records queued before them are durable. After a
+     * failure, no more records are written and all markers fail.
+     */
+    private void writeRecords() {
+        final List<Object> batch = new ArrayList<>();
+        final StringBuilder records = new StringBuilder();
+        boolean stopped = false;
+        while (!stopped) {
+            try {
+                batch.add(pendingRecords.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            pendingRecords.drainTo(batch);
+            try {
+                if (failure != null) {
+                    throw failure;
+                }
+                for (Object entry : batch) {
+                    if (entry instanceof Marker marker) {
+                        if (marker.nextGeneration > 0) {
+                            write(records);
+                            channel.force(false);
+                            channel.close();
+                            channel = FileChannel.open(getLogFile(marker.nextGeneration), CREATE, WRITE, APPEND);
+                        }
+                        stopped |= marker.stop;
+                    } else {
+                        records.append((String) entry);
+                    }
+                }
+                write(records);
+                channel.force(false);
+                completeMarkers(batch, null);
+            } catch (IOException e) {
+                failure = e;
+                completeMarkers(batch, e);
+            }
+            batch.clear();
+            records.setLength(0);
+        }
+    }
+
+    private static void completeMarkers(final List<Object> batch, final IOException failure) {
+        for (Object entry : batch) {
+            if (entry instanceof Marker marker) {
+                if (failure == null) {
+                    marker.written.complete(null);
+                } else {
+                    marker.written.completeExceptionally(failure);
+                }
+            }
+        }
+    }
+
+    private void write(final StringBuilder records) throws IOException {
+        final ByteBuffer bytes = UTF_8.encode(CharBuffer.wrap(records));
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        records.setLength(0);
+    }
+
+    /**
+     * Joins the fields to one line, escaping the characters used to separate fields and records.
+     */
+    private static String encodeRecord(final String... fields) {
+        final StringBuilder record = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                record.append(FIELD_SEPARATOR);
+            }
+            final String field = fields[i] == null ? "" : fields[i];
+            for (int j = 0; j < field.length(); j++) {
+                final char character = field.charAt(j);
+                switch (character) {
+                    case ESCAPE -> record.append(ESCAPE).append(ESCAPE);
+                    case FIELD_SEPARATOR -> record.append(ESCAPE).append('t');
+                    case RECORD_SEPARATOR -> record.append(ESCAPE).append('n');
+                    case '\r' -> record.append(ESCAPE).append('r');
+                    default -> record.append(character);
+                }
+            }
+        }
+        return record.append(RECORD_SEPARATOR).toString();
+    }
+
+    private static String[] decodeRecord(final String log, final int start, final int end) {
+        final List<String> fields = new ArrayList<>();
+        final StringBuilder field = new StringBuilder();
+        for (int i = start; i < end; i++) {
+            final char character = log.charAt(i);
+            if (character == FIELD_SEPARATOR) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (character == ESCAPE && i + 1 < end) {
+                final char escaped = log.charAt(++i);
+                field.append(escaped == 't' ? FIELD_SEPARATOR
+                        : escaped == 'n' ? RECORD_SEPARATOR
+                        : escaped == 'r' ? '\r'
+                        : escaped);
+            } else {
+                field.append(character);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    private TreeSet<Long> findGenerations(final Pattern fileName) throws IOException {
+        final TreeSet<Long> generations = new TreeSet<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                final Matcher matcher = fileName.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    generations.add(Long.parseLong(matcher.group(1)));
+                }
+            });
+        }
+        return generations;
+    }
+
+    private Path getLogFile(final long logGeneration) {
+        return directory.resolve("log-" + logGeneration + ".txt");
+    }
+
+    private Path getSnapshotFile(final long snapshotGeneration) {
+        return directory.resolve("snapshot-" + snapshotGeneration + ".txt");
+    }
+
+    /**
+     * Queued behind the records which have to be durable before it completes. A marker with a next generation also
+     * switches the log to that generation, a stopping marker ends the writer thread.
+     */
+    private static class Marker {
+
+        private final long nextGeneration;
+        private final boolean stop;
+        private final CompletableFuture<Void> written = new CompletableFuture<>();
+
+        private Marker(final long nextGeneration, final boolean stop) {
+            this.nextGeneration = nextGeneration;
+            this.stop = stop;
+        }
+
+    }
+
+}
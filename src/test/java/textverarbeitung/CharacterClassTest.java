@@ -0,0 +1,51 @@
+package textverarbeitung;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the {@link CharacterClass} and its methods
+ */
+class CharacterClassTest {
+
+    @Test
+    void testSanitizeKeepsAllowedText() {
+        final String text = "Öle: 100% (Übung) - ok?";
+        assertSame(text, CharacterClass.sanitize(text));
+    }
+
+    @Test
+    void testSanitizeRemovesDisallowedCharacters() {
+        assertEquals("Asdf, FDSA ", CharacterClass.sanitize("Asdf, FDSA ^~^"));
+        assertEquals("..’", CharacterClass.sanitize("=‘•..•’="));
+        assertEquals("", CharacterClass.sanitize("^~^"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(chars = {'.', ',', ':', ';', '-', '!', '?', '’', ' ', '(', ')', '"', '%', '@', '+', '*', '[', ']',
+            '{', '}', '/', '\\', '&', '#', '$'})
+    void testSpecialCharacters(final char character) {
+        assertTrue(CharacterClass.isSpecial(character));
+        assertTrue(CharacterClass.isAllowed(character));
+    }
+
+    @ParameterizedTest
+    @ValueSource(chars = {'A', 'z', '0', '9', 'ä', 'Ö', 'ü'})
+    void testWordCharacters(final char character) {
+        assertFalse(CharacterClass.isSpecial(character));
+        assertTrue(CharacterClass.isAllowed(character));
+    }
+
+    @ParameterizedTest
+    @ValueSource(chars = {'^', '~', '=', '‘', '•', 'é', '\t'})
+    void testDisallowedCharacters(final char character) {
+        assertFalse(CharacterClass.isAllowed(character));
+    }
+
+}
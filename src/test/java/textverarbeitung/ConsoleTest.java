@@ -3,12 +3,15 @@ package textverarbeitung;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
 
 import static java.lang.String.format;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Tests the {@link Console} and its methods
@@ -42,6 +45,15 @@ class ConsoleTest {
         assertEquals(output + System.lineSeparator(), outputStream.toString());
     }
 
+    @Test
+    void testPrintLineWithRenderer() {
+        OutputStream outputStream = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(outputStream));
+        console.printLine(sink -> sink.append("Out").append("put", 0, 2));
+
+        assertEquals("Outpu" + System.lineSeparator(), outputStream.toString());
+    }
+
     @Test
     void testPrintError() {
         String errorOutput = "Error Output";
@@ -51,4 +63,55 @@ class ConsoleTest {
 
         assertEquals(format(TextConstants.AS_RED, errorOutput) + System.lineSeparator(), outputStream.toString());
     }
+
+    @Test
+    void testPrintErrorWithoutTerminal() {
+        final Console batchConsole = new Console(new ByteArrayInputStream(new byte[0]), OutputMode.BATCH);
+        OutputStream outputStream = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(outputStream));
+        batchConsole.printError("Error Output");
+        batchConsole.flush();
+
+        assertTrue(console.isTerminal());
+        assertFalse(batchConsole.isTerminal());
+        assertEquals("Error Output" + System.lineSeparator(), outputStream.toString());
+    }
+
+    @Test
+    void testPrintErrorToConnection() {
+        final OutputStream connectionOutput = new ByteArrayOutputStream();
+        final Console connectionConsole = new Console(new ByteArrayInputStream(new byte[0]), connectionOutput,
+                OutputMode.INTERACTIVE);
+        connectionConsole.printError("Error Output");
+        connectionConsole.flush();
+
+        assertFalse(connectionConsole.isTerminal());
+        assertEquals("Error Output" + System.lineSeparator(), connectionOutput.toString());
+    }
+
+    @Test
+    void testBufferedOutputIsWrittenOnFlush() {
+        final Console bufferedConsole = new Console(OutputMode.INTERACTIVE);
+        OutputStream outputStream = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(outputStream));
+        bufferedConsole.printLine("Output");
+        bufferedConsole.printError("Error Output");
+        assertEquals("", outputStream.toString());
+
+        bufferedConsole.flush();
+        assertEquals("Output" + System.lineSeparator() + format(TextConstants.AS_RED, "Error Output")
+                + System.lineSeparator(), outputStream.toString());
+    }
+
+    @Test
+    void testBufferedOutputLargerThanBuffer() {
+        final Console bufferedConsole = new Console(OutputMode.INTERACTIVE);
+        final String output = "x".repeat(200_000);
+        OutputStream outputStream = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(outputStream));
+        bufferedConsole.printLine(sink -> sink.append(output));
+        bufferedConsole.flush();
+
+        assertEquals(output + System.lineSeparator(), outputStream.toString());
+    }
 }
@@ -5,10 +5,15 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.NullSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static textverarbeitung.TextConstants.BLANK;
 import static textverarbeitung.TextConstants.WHITESPACE;
@@ -58,6 +63,185 @@ public class EditorManagerTest {
         assertEquals(toReplaceWith, paragraphs.get(1).getContent());
     }
 
+    @Test
+    void testIndexIsUpdatedWithEveryChange() {
+        final IndexManager indexManager = new IndexManager();
+        final EditorManager indexedEditorManager = new EditorManager(indexManager);
+        indexedEditorManager.addParagraph("Asdf ".repeat(4), null);
+        indexedEditorManager.addParagraph("Asdf", 1);
+        indexedEditorManager.replace(2, "Asdf", "Fdsa");
+        indexedEditorManager.addParagraph("Asdf ".repeat(3), 2);
+        indexedEditorManager.deleteParagraph(1);
+        indexManager.updateIndices(indexedEditorManager.getParagraphs());
+
+        assertEquals(Set.of(2), indexManager.getIndices().get("Fdsa"));
+        assertFalse(indexManager.getIndices().containsKey("Asdf"));
+    }
+
+    /**
+     * Undoes and redoes additions, a replacement and a deletion step by step, checking the paragraphs and the index
+     * after each step.
+     */
+    @Test
+    void testUndoAndRedo() {
+        final IndexManager indexManager = new IndexManager();
+        final EditorManager journaledEditorManager = new EditorManager(indexManager);
+        journaledEditorManager.addParagraph("Asdf Asdf", null);
+        journaledEditorManager.addParagraph("Qwer Asdf Asdf.", null);
+        journaledEditorManager.replace(2, "Asdf", "Fdsa");
+        journaledEditorManager.deleteParagraph(1);
+        assertEquals(List.of("Qwer Fdsa Fdsa."), getContents(journaledEditorManager));
+
+        assertEquals("The last change of paragraph Nr. 1 was undone.", journaledEditorManager.undo());
+        assertEquals(List.of("Asdf Asdf", "Qwer Fdsa Fdsa."), getContents(journaledEditorManager));
+        journaledEditorManager.undo();
+        assertEquals(List.of("Asdf Asdf", "Qwer Asdf Asdf."), getContents(journaledEditorManager));
+        indexManager.updateIndices(journaledEditorManager.getParagraphs());
+        assertEquals(Set.of(1, 2), indexManager.getIndices().get("Asdf"));
+
+        assertEquals("The last undone change of paragraph Nr. 2 was redone.", journaledEditorManager.redo());
+        assertEquals(List.of("Asdf Asdf", "Qwer Fdsa Fdsa."), getContents(journaledEditorManager));
+        journaledEditorManager.undo();
+        journaledEditorManager.undo();
+        journaledEditorManager.undo();
+        assertEquals("There is nothing to undo.", journaledEditorManager.undo());
+        assertTrue(journaledEditorManager.getParagraphs().isEmpty());
+
+        journaledEditorManager.redo();
+        journaledEditorManager.addParagraph("New", 1);
+        assertEquals("There is nothing to redo.", journaledEditorManager.redo());
+        assertEquals(List.of("New", "Asdf Asdf"), getContents(journaledEditorManager));
+        indexManager.updateIndices(journaledEditorManager.getParagraphs());
+        assertFalse(indexManager.getIndices().containsKey("Fdsa"));
+    }
+
+    @Test
+    void testApplyUndoneEditToAnotherEditorManager() {
+        final EditorManager replayingEditorManager = new EditorManager();
+        for (EditorManager manager : List.of(editorManager, replayingEditorManager)) {
+            manager.addParagraph("Asdf Asdf", null);
+            manager.addParagraph("Qwer Asdf", null);
+            manager.replaceAll("Asdf", "Fdsa");
+        }
+
+        final List<EditJournal.Edit> appliedEdits = new ArrayList<>();
+        editorManager.undo(appliedEdits::add);
+        assertEquals(EditJournal.Edit.Kind.REPLACE_ALL, appliedEdits.get(0).getKind());
+        replayingEditorManager.applyEdit(appliedEdits.get(0));
+        assertEquals(List.of("Asdf Asdf", "Qwer Asdf"), getContents(replayingEditorManager));
+        assertEquals(getContents(editorManager), getContents(replayingEditorManager));
+
+        replayingEditorManager.undo();
+        assertEquals(List.of("Fdsa Fdsa", "Qwer Fdsa"), getContents(replayingEditorManager));
+        assertThrows(IllegalArgumentException.class, () -> editorManager.applyEdit(appliedEdits.get(0)));
+    }
+
+    @Test
+    void testUndoIsBoundedByJournalCapacity() {
+        final EditorManager journaledEditorManager = new EditorManager(new IndexManager(), 200);
+        for (int i = 0; i < 10; i++) {
+            journaledEditorManager.addParagraph("Paragraph " + i, null);
+        }
+        int undoneChanges = 0;
+        while (!journaledEditorManager.undo().equals("There is nothing to undo.")) {
+            undoneChanges++;
+        }
+        assertTrue(undoneChanges > 0 && undoneChanges < 10);
+        assertEquals(10 - undoneChanges, journaledEditorManager.getParagraphSize());
+    }
+
+    @Test
+    void testConcurrentReplacementsOfDifferentParagraphs() {
+        final int paragraphCount = 64;
+        for (int i = 0; i < paragraphCount; i++) {
+            editorManager.addParagraph("Alpha Beta Gamma Delta", null);
+        }
+        final List<Paragraph> snapshot = editorManager.getParagraphs();
+
+        IntStream.rangeClosed(1, paragraphCount).parallel().forEach(position -> {
+            editorManager.replace(position, "Alpha", "Omega");
+            editorManager.replace(position, "Beta", "Omega");
+        });
+
+        assertTrue(getContents(editorManager).stream().allMatch("Omega Omega Gamma Delta"::equals));
+        assertTrue(snapshot.stream().allMatch(paragraph -> paragraph.getContent().equals("Alpha Beta Gamma Delta")));
+        final String indices = editorManager.getIndicesInPrintFormat();
+        assertTrue(indices.contains("Omega 1,2,3"));
+        assertFalse(indices.contains("Alpha"));
+    }
+
+    @Test
+    void testSearch() {
+        editorManager.addParagraph("lorem ipsum lorem", null);
+        editorManager.addParagraph("Dolor sit", null);
+        editorManager.addParagraph("Ipsum lorem", null);
+
+        assertEquals("Characters lorem were found 3 times in 2 paragraphs:" + System.lineSeparator()
+                + "Paragraph Nr. 1 at offset 0, 12" + System.lineSeparator()
+                + "Paragraph Nr. 3 at offset 6", editorManager.search("lorem"));
+
+        // The index built by the first search is kept up to date
+        editorManager.replace(2, "Dolor", "lorem");
+        editorManager.deleteParagraph(1);
+        assertEquals("Characters lorem were found 2 times in 2 paragraphs:" + System.lineSeparator()
+                + "Paragraph Nr. 1 at offset 0" + System.lineSeparator()
+                + "Paragraph Nr. 2 at offset 6", editorManager.search("lorem"));
+        assertEquals("Characters Lorem could not be found.", editorManager.search("Lorem"));
+        assertEquals("You cannot search for blanks or spaces.", editorManager.search(WHITESPACE));
+    }
+
+    @Test
+    void testReplaceAll() {
+        final IndexManager indexManager = new IndexManager();
+        final EditorManager replacingEditorManager = new EditorManager(indexManager);
+        replacingEditorManager.addParagraph("Asdf Qwer Asdf Asdf", null);
+        replacingEditorManager.addParagraph("Qwer", null);
+        replacingEditorManager.addParagraph("Yxcv Asdf", null);
+
+        assertEquals("Characters Asdf have been replaced with Fdsa 4 times in 2 paragraphs.",
+                replacingEditorManager.replaceAll("Asdf", "Fdsa"));
+        assertEquals(List.of("Fdsa Qwer Fdsa Fdsa", "Qwer", "Yxcv Fdsa"), getContents(replacingEditorManager));
+        indexManager.updateIndices(replacingEditorManager.getParagraphs());
+        assertEquals(Set.of(1, 3), indexManager.getIndices().get("Fdsa"));
+        assertFalse(indexManager.getIndices().containsKey("Asdf"));
+        assertEquals(Paragraph.NOTHING_REPLACED_MESSAGE, replacingEditorManager.replaceAll("Asdf", "Fdsa"));
+
+        // All replacements are undone and redone at once
+        assertEquals("The last change in 2 paragraphs was undone.", replacingEditorManager.undo());
+        assertEquals(List.of("Asdf Qwer Asdf Asdf", "Qwer", "Yxcv Asdf"), getContents(replacingEditorManager));
+        assertEquals("The last undone change in 2 paragraphs was redone.", replacingEditorManager.redo());
+        assertEquals(List.of("Fdsa Qwer Fdsa Fdsa", "Qwer", "Yxcv Fdsa"), getContents(replacingEditorManager));
+
+        // Texts shorter than a trigram are searched in all paragraphs
+        assertEquals("Characters Q have been replaced with W 2 times in 2 paragraphs.",
+                replacingEditorManager.replaceAll("Q", "W"));
+        assertEquals(List.of("Fdsa Wwer Fdsa Fdsa", "Wwer", "Yxcv Fdsa"), getContents(replacingEditorManager));
+        assertEquals("You cannot search or replace blanks or spaces.", replacingEditorManager.replaceAll("Q", BLANK));
+    }
+
+    @Test
+    void testRegexReplace() {
+        editorManager.addParagraph("Nr. 12 and Nr. 345", null);
+        editorManager.addParagraph("Nr. 6", null);
+
+        assertEquals("Matches of Nr\\. (\\d+) have been replaced with #$1~ in paragraph Nr. 1.",
+                editorManager.regexReplace(1, "Nr\\. (\\d+)", "#$1~"));
+        // The disallowed character of the replacement is removed from the content
+        assertEquals(List.of("#12 and #345", "Nr. 6"), getContents(editorManager));
+        assertEquals(Paragraph.NOTHING_REPLACED_MESSAGE, editorManager.regexReplace(1, "Nr\\.", "No."));
+
+        assertEquals("Matches of (?<digit>\\d) have been replaced with [${digit}] 6 times in 2 paragraphs.",
+                editorManager.regexReplaceAll("(?<digit>\\d)", "[${digit}]"));
+        assertEquals(List.of("#[1][2] and #[3][4][5]", "Nr. [6]"), getContents(editorManager));
+        assertEquals("The last change in 2 paragraphs was undone.", editorManager.undo());
+        assertEquals(List.of("#12 and #345", "Nr. 6"), getContents(editorManager));
+
+        assertThrows(PatternSyntaxException.class, () -> editorManager.regexReplaceAll("(\\d", "x"));
+        assertThrows(IllegalArgumentException.class, () -> editorManager.regexReplaceAll("\\d", "$2"));
+        assertEquals(List.of("#12 and #345", "Nr. 6"), getContents(editorManager));
+        assertEquals("You cannot search for an empty regular expression.", editorManager.regexReplace(1, BLANK, "x"));
+    }
+
     @ParameterizedTest
     @NullSource
     @ValueSource(strings = {BLANK, WHITESPACE})
@@ -67,4 +251,8 @@ public class EditorManagerTest {
         assertEquals("You cannot search or replace blanks or spaces.", resultMessage);
     }
 
+    private static List<String> getContents(final EditorManager editorManager) {
+        return editorManager.getParagraphs().stream().map(Paragraph::getContent).toList();
+    }
+
 }
@@ -0,0 +1,245 @@
+package textverarbeitung;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static java.lang.System.lineSeparator;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the {@link EditorServer} with sessions connected over the loopback interface
+ */
+class EditorServerTest {
+
+    private EditorServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new EditorServer(0);
+        final Thread acceptThread = new Thread(server::serve);
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Test
+    void testSessionsShareOpenedDocument() throws IOException {
+        try (Session writer = new Session(); Session reader = new Session()) {
+            writer.send("OPEN shared");
+            writer.awaitLine("Document 'shared' with 0 Paragraphs has been opened.");
+            writer.send("ADD | Written by another session");
+            writer.awaitLine("Paragraph was added at Position 1 of 1");
+
+            reader.send("PRINT");
+            reader.send("OPEN shared");
+            reader.awaitLine("Document 'shared' with 1 Paragraphs has been opened.");
+            reader.send("PRINT");
+            reader.awaitLine("Written by another session");
+        }
+    }
+
+    @Test
+    void testUndoIsRefusedInSharedDocument() throws IOException {
+        try (Session writer = new Session(); Session other = new Session()) {
+            writer.send("ADD | Private");
+            writer.send("UNDO");
+            writer.awaitLine("The last change of paragraph Nr. 1 was undone.");
+
+            writer.send("OPEN shared");
+            writer.send("ADD | Written by the writer");
+            writer.awaitLine("Paragraph was added at Position 1 of 1");
+            other.send("OPEN shared");
+            other.awaitLine("Document 'shared' with 1 Paragraphs has been opened.");
+            other.send("UNDO");
+            other.awaitLine("Changes cannot be undone in the shared document 'shared', as they may have been made by"
+                    + " other sessions.");
+            other.send("REDO");
+            other.awaitLine("Changes cannot be redone in the shared document 'shared', as they may have been made by"
+                    + " other sessions.");
+
+            writer.send("PRINT");
+            writer.awaitLine("Written by the writer");
+        }
+    }
+
+    @Test
+    void testSessionsCannotAccessFiles(@TempDir final Path tempDir) throws IOException {
+        final Path file = tempDir.resolve("document.txt");
+        try (Session session = new Session()) {
+            session.send("ADD | Secret");
+            session.send("SAVE | " + file);
+            session.awaitLine("Files cannot be saved in a remote session.");
+            session.send("LOAD | " + file);
+            session.awaitLine("Files cannot be loaded in a remote session.");
+        }
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void testSessionOutputIsNotFormatted() throws IOException {
+        try (Session session = new Session()) {
+            session.send("HELP");
+            session.send("SAVE");
+            session.send("UNKNOWN");
+            session.send("EXIT");
+            final String output = session.readToEnd();
+
+            assertTrue(output.contains(Command.getAllPlainHelpTexts()));
+            assertTrue(output.contains("Files cannot be saved in a remote session."));
+            assertFalse(output.contains("\u001B["));
+        }
+    }
+
+    @Test
+    void testConcurrentSessionsAddToSharedDocument() throws IOException {
+        final int sessionCount = 20;
+        final int paragraphsPerSession = 25;
+        final List<CompletableFuture<Void>> sessions = new ArrayList<>();
+        for (int i = 0; i < sessionCount; i++) {
+            final int sessionNumber = i;
+            sessions.add(CompletableFuture.runAsync(() -> {
+                try (Session session = new Session()) {
+                    session.send("OPEN shared");
+                    for (int j = 0; j < paragraphsPerSession; j++) {
+                        session.send("ADD 1 | Paragraph " + j + " of session " + sessionNumber);
+                    }
+                    session.send("EXIT");
+                    session.awaitEnd();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }));
+        }
+        CompletableFuture.allOf(sessions.toArray(CompletableFuture[]::new)).join();
+
+        try (Session session = new Session()) {
+            session.send("OPEN shared");
+            session.awaitLine("Document 'shared' with " + sessionCount * paragraphsPerSession
+                    + " Paragraphs has been opened.");
+        }
+    }
+
+    /**
+     * Every session replaces the text of a paragraph of its own step by step, so the replacements of different
+     * paragraphs run concurrently under the shared structure lock and their paragraph locks. No step may be lost.
+     */
+    @Test
+    void testConcurrentSessionsReplaceInSharedDocument() throws IOException {
+        final int sessionCount = 20;
+        final int stepsPerSession = 25;
+        try (Session session = new Session()) {
+            session.send("OPEN shared");
+            for (int i = 0; i < sessionCount; i++) {
+                session.send("ADD | Session " + i + " step 0");
+            }
+            session.awaitLine("Paragraph was added at Position " + sessionCount + " of " + sessionCount);
+        }
+
+        final List<CompletableFuture<Void>> sessions = new ArrayList<>();
+        for (int i = 0; i < sessionCount; i++) {
+            final int paragraphNumber = i + 1;
+            sessions.add(CompletableFuture.runAsync(() -> {
+                try (Session session = new Session()) {
+                    session.send("OPEN shared");
+                    for (int step = 0; step < stepsPerSession; step++) {
+                        session.send("REPLACE " + paragraphNumber + " | step " + step + " | step " + (step + 1));
+                    }
+                    session.send("EXIT");
+                    session.awaitEnd();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }));
+        }
+        CompletableFuture.allOf(sessions.toArray(CompletableFuture[]::new)).join();
+
+        try (Session session = new Session()) {
+            session.send("OPEN shared");
+            session.awaitLine("Document 'shared' with " + sessionCount + " Paragraphs has been opened.");
+            session.send("PRINT");
+            for (int i = 0; i < sessionCount; i++) {
+                session.awaitLine((i + 1) + ": Session " + i + " step " + stepsPerSession);
+            }
+        }
+    }
+
+    /**
+     * Client connection to the server under test.
+     */
+    private final class Session implements AutoCloseable {
+
+        private final Socket socket;
+        private final PrintWriter writer;
+        private final BufferedReader reader;
+
+        private Session() throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+            writer = new PrintWriter(socket.getOutputStream(), true, Charset.defaultCharset());
+            reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), Charset.defaultCharset()));
+        }
+
+        private void send(final String line) {
+            writer.println(line);
+        }
+
+        /**
+         * Reads the output of the session until a line containing the expected text, where a prompt may precede it.
+         */
+        private void awaitLine(final String expected) throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                assertNotNull(line, "Session ended before '" + expected + "' was printed");
+            } while (!line.contains(expected));
+        }
+
+        /**
+         * Reads the output of the session until the server closes the connection.
+         */
+        private void awaitEnd() throws IOException {
+            while (reader.readLine() != null) {
+                // Skips the output of the session
+            }
+        }
+
+        /**
+         * Reads the output of the session until the server closes the connection and returns it.
+         */
+        private String readToEnd() throws IOException {
+            final StringBuilder output = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                output.append(line).append(lineSeparator());
+            }
+            return output.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+
+    }
+
+}
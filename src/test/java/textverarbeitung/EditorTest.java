@@ -2,13 +2,19 @@ package textverarbeitung;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import static java.lang.System.lineSeparator;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static textverarbeitung.Command.ADD;
 import static textverarbeitung.Command.DEL;
@@ -18,8 +24,10 @@ import static textverarbeitung.Command.FORMAT_FIX;
 import static textverarbeitung.Command.FORMAT_RAW;
 import static textverarbeitung.Command.HELP;
 import static textverarbeitung.Command.INDEX;
+import static textverarbeitung.Command.LOAD;
 import static textverarbeitung.Command.PRINT;
 import static textverarbeitung.Command.REPLACE;
+import static textverarbeitung.Command.SAVE;
 
 /**
  * Teste the App / Editor class by calling the main and simulating the user input from the console end to end.
@@ -159,6 +167,244 @@ class EditorTest {
         assertTrue(getConsoleOutput().contains("1: Ximon"));
     }
 
+    @Test
+    void testBatchWithInlinePayloads() {
+        System.setIn(new ByteArrayInputStream(("# Script" + lineSeparator()
+                + ADD.getIdentifier() + " | Simon" + lineSeparator()
+                + ADD.getIdentifier() + " 1 | Peter" + lineSeparator()
+                + lineSeparator()
+                + REPLACE.getIdentifier() + " 2 | S | X" + lineSeparator()
+                + "WrongCommand" + lineSeparator()
+                + PRINT.getIdentifier()).getBytes()));
+        App.main(new String[]{"--batch"});
+
+        final String result = getConsoleOutput();
+        assertTrue(result.contains("1: Peter" + lineSeparator() + "2: Ximon"));
+        assertTrue(result.contains("Batch finished: 4 commands executed, 1 failed"));
+        assertFalse(result.contains("Welcome"));
+        assertFalse(result.contains("> "));
+        assertFalse(result.contains(Command.getAllHelpTexts()));
+    }
+
+    @Test
+    void testBatchRejectsSurplusInlinePayloads() {
+        System.setIn(new ByteArrayInputStream((ADD.getIdentifier() + " | Simon | Peter" + lineSeparator()
+                + PRINT.getIdentifier() + " | Peter" + lineSeparator()
+                + ADD.getIdentifier() + " | Simon" + lineSeparator()
+                + PRINT.getIdentifier()).getBytes()));
+        App.main(new String[]{"--batch"});
+
+        final String result = getConsoleOutput();
+        assertTrue(result.contains("ADD takes 1 inline texts at most, but 2 were given."));
+        assertTrue(result.contains("PRINT takes 0 inline texts at most, but 1 were given."));
+        assertTrue(result.contains("1: Simon" + lineSeparator()));
+        assertFalse(result.contains("Peter" + lineSeparator()));
+        assertTrue(result.contains("Batch finished: 2 commands executed, 2 failed"));
+    }
+
+    @Test
+    void testBatchRegexReplaceWithInlineAlternation() {
+        System.setIn(new ByteArrayInputStream(("ADD | foo bar baz" + lineSeparator()
+                + "REGEX REPLACE 1 | foo|bar | X" + lineSeparator()
+                + "REGEX REPLACE 1 | foo\\|bar | X" + lineSeparator()
+                + PRINT.getIdentifier()).getBytes()));
+        App.main(new String[]{"--batch"});
+
+        final String result = getConsoleOutput();
+        assertTrue(result.contains("REGEX REPLACE takes 2 inline texts at most, but 3 were given."));
+        assertTrue(result.contains("1: X X baz" + lineSeparator()));
+        assertTrue(result.contains("Batch finished: 3 commands executed, 1 failed"));
+    }
+
+    @Test
+    void testOpenBeyondMaxDocuments() {
+        final String script = "OPEN first" + lineSeparator()
+                + "OPEN second" + lineSeparator()
+                + "OPEN first" + lineSeparator();
+        new Editor(new Console(new ByteArrayInputStream(script.getBytes()), OutputMode.BATCH),
+                new DocumentRegistry(1)).runBatch();
+
+        final String result = getConsoleOutput();
+        assertTrue(result.contains("Document 'second' cannot be created, as there are 1 documents already."));
+        assertTrue(result.contains("Batch finished: 2 commands executed, 1 failed"));
+    }
+
+    @Test
+    void testBatchUndoRedo() {
+        System.setIn(new ByteArrayInputStream(("ADD | Simon" + lineSeparator()
+                + "REPLACE | S | X" + lineSeparator()
+                + "UNDO" + lineSeparator()
+                + PRINT.getIdentifier() + lineSeparator()
+                + "REDO" + lineSeparator()
+                + PRINT.getIdentifier()).getBytes()));
+        App.main(new String[]{"--batch"});
+
+        final String result = getConsoleOutput();
+        assertTrue(result.contains("The last change of paragraph Nr. 1 was undone." + lineSeparator() + "1: Simon"));
+        assertTrue(result.contains("The last undone change of paragraph Nr. 1 was redone." + lineSeparator() + "1: Ximon"));
+    }
+
+    @Test
+    void testBatchReplaceAll() {
+        System.setIn(new ByteArrayInputStream(("ADD | Simon Says" + lineSeparator()
+                + "ADD | Peter" + lineSeparator()
+                + "ADD | Sabine" + lineSeparator()
+                + "REPLACE ALL | S | X" + lineSeparator()
+                + PRINT.getIdentifier() + lineSeparator()
+                + "UNDO" + lineSeparator()
+                + PRINT.getIdentifier()).getBytes()));
+        App.main(new String[]{"--batch"});
+
+        final String result = getConsoleOutput();
+        assertTrue(result.contains("Characters S have been replaced with X 3 times in 2 paragraphs."));
+        assertTrue(result.contains("1: Ximon Xays" + lineSeparator() + "2: Peter" + lineSeparator() + "3: Xabine"));
+        assertTrue(result.contains("The last change in 2 paragraphs was undone." + lineSeparator()
+                + "1: Simon Says" + lineSeparator() + "2: Peter" + lineSeparator() + "3: Sabine"));
+    }
+
+    @Test
+    void testBatchRegexReplace() {
+        System.setIn(new ByteArrayInputStream(("ADD | Simon  Says" + lineSeparator()
+                + "ADD | Peter    Pan" + lineSeparator()
+                + "REGEX REPLACE 1 | (\\w+) +(\\w+) | $2 $1" + lineSeparator()
+                + "REGEX REPLACE ALL | (\\w+ | x" + lineSeparator()
+                + "REGEX REPLACE ALL" + lineSeparator()
+                + " {2,}" + lineSeparator()
+                + " " + lineSeparator()
+                + PRINT.getIdentifier()).getBytes()));
+        App.main(new String[]{"--batch"});
+
+        final String result = getConsoleOutput();
+        assertTrue(result.contains("Matches of  {2,} have been replaced with   1 times in 1 paragraphs."));
+        assertTrue(result.contains("1: Says Simon" + lineSeparator() + "2: Peter Pan"));
+        assertTrue(result.contains("The regular expression is invalid: Unclosed group near index 4."));
+        assertTrue(result.contains("Batch finished: 5 commands executed, 1 failed"));
+    }
+
+    @Test
+    void testRecoverSessionFromWriteAheadLog(@TempDir final Path tempDir) {
+        final String script = "ADD | Simon" + lineSeparator()
+                + "ADD | Peter" + lineSeparator()
+                + "FORMAT FIX 4" + lineSeparator()
+                + "REPLACE 1 | S | X" + lineSeparator()
+                + "DEL 2" + lineSeparator()
+                + "UNDO" + lineSeparator();
+        // A checkpoint is taken after every second change
+        new Editor(new Console(new ByteArrayInputStream(script.getBytes()), OutputMode.BATCH),
+                new WriteAheadLog(tempDir, new PersistenceManager(), 2)).runBatch();
+
+        System.setIn(new ByteArrayInputStream(PRINT.getIdentifier().getBytes()));
+        App.main(new String[]{"--wal", tempDir.toString(), "--batch"});
+
+        final String result = getConsoleOutput();
+        assertTrue(result.contains("Recovered 2 Paragraphs"));
+        assertTrue(result.contains("Xim-" + lineSeparator() + "on" + lineSeparator() + lineSeparator() + "Pet-"));
+    }
+
+    @Test
+    void testUndoAcrossCheckpoints(@TempDir final Path tempDir) {
+        final String script = "ADD | Simon" + lineSeparator()
+                + "ADD | Peter" + lineSeparator()
+                + "REPLACE ALL | e | E" + lineSeparator()
+                + "REPLACE 1 | S | X" + lineSeparator()
+                + "UNDO" + lineSeparator()
+                + "UNDO" + lineSeparator()
+                + "UNDO" + lineSeparator()
+                + "REDO" + lineSeparator()
+                + "REDO" + lineSeparator();
+        // A checkpoint is taken after every second change
+        new Editor(new Console(new ByteArrayInputStream(script.getBytes()), OutputMode.BATCH),
+                new WriteAheadLog(tempDir, new PersistenceManager(), 2)).runBatch();
+        assertTrue(getConsoleOutput().contains("The last change of paragraph Nr. 2 was undone."));
+
+        System.setIn(new ByteArrayInputStream(PRINT.getIdentifier().getBytes()));
+        App.main(new String[]{"--wal", tempDir.toString(), "--batch"});
+
+        final String result = getConsoleOutput();
+        assertTrue(result.contains("1: Simon" + lineSeparator() + "2: PEtEr" + lineSeparator()));
+    }
+
+    @Test
+    void testStopLoggingAfterFailedSnapshot(@TempDir final Path tempDir) throws IOException {
+        // The snapshot of the first checkpoint cannot be written where a directory of its name is in the way
+        Files.createDirectory(tempDir.resolve("snapshot-2.tmp"));
+        final String script = "ADD | Simon" + lineSeparator()
+                + "ADD | Peter" + lineSeparator()
+                + "ADD | Paul" + lineSeparator()
+                + "DEL 1" + lineSeparator();
+        new Editor(new Console(new ByteArrayInputStream(script.getBytes()), OutputMode.BATCH),
+                new WriteAheadLog(tempDir, new PersistenceManager(), 2)).runBatch();
+        final String output = getConsoleOutput();
+        assertEquals(output.indexOf("No further changes are logged"), output.lastIndexOf("No further changes are logged"));
+        assertTrue(output.contains("The snapshot could not be saved: "));
+
+        System.setIn(new ByteArrayInputStream(PRINT.getIdentifier().getBytes()));
+        App.main(new String[]{"--wal", tempDir.toString(), "--batch"});
+
+        final String result = getConsoleOutput();
+        assertTrue(result.contains("Recovered 2 Paragraphs"));
+        assertTrue(result.contains("1: Simon" + lineSeparator() + "2: Peter" + lineSeparator()));
+        assertFalse(result.contains("Paul" + lineSeparator()));
+    }
+
+    @Test
+    void testNothingToUndoIsNotLogged(@TempDir final Path tempDir) {
+        final String script = "UNDO" + lineSeparator()
+                + "ADD | Simon" + lineSeparator()
+                + "REDO" + lineSeparator();
+        new Editor(new Console(new ByteArrayInputStream(script.getBytes()), OutputMode.BATCH),
+                new WriteAheadLog(tempDir, new PersistenceManager())).runBatch();
+
+        System.setIn(new ByteArrayInputStream(PRINT.getIdentifier().getBytes()));
+        App.main(new String[]{"--wal", tempDir.toString(), "--batch"});
+
+        final String result = getConsoleOutput();
+        assertTrue(result.contains("Recovered 1 Paragraphs after replaying 1 logged changes."));
+    }
+
+    @Test
+    void testBatchHelpWithoutFormatting() {
+        System.setIn(new ByteArrayInputStream(HELP.getIdentifier().getBytes()));
+        App.main(new String[]{"--batch"});
+
+        final String result = getConsoleOutput();
+        assertTrue(result.contains(Command.getAllPlainHelpTexts()));
+        assertTrue(result.contains("\tFORMAT FIX [n]"));
+        assertFalse(result.contains("\033[1m"));
+    }
+
+    @Test
+    void testBatchScriptFile(@TempDir final Path tempDir) throws IOException {
+        final Path script = tempDir.resolve("script.txt");
+        Files.writeString(script, addParagraph("Simon") + PRINT.getIdentifier() + exitEditor() + lineSeparator()
+                + PRINT.getIdentifier());
+        App.main(new String[]{"--batch", script.toString()});
+
+        final String result = getConsoleOutput();
+        assertTrue(result.contains("1: Simon"));
+        assertTrue(result.contains("Batch finished: 3 commands executed, 0 failed"));
+    }
+
+    @Test
+    void testSaveAndLoad(@TempDir final Path tempDir) {
+        final Path file = tempDir.resolve("document.txt");
+        System.setIn(new ByteArrayInputStream((addParagraph("Simon")
+                + addParagraph("Peter")
+                + SAVE.getIdentifier() + " | " + file + lineSeparator()
+                + DEL.getIdentifier() + lineSeparator()
+                + DEL.getIdentifier() + lineSeparator()
+                + LOAD.getIdentifier() + lineSeparator()
+                + file + lineSeparator()
+                + PRINT.getIdentifier()
+                + exitEditor()).getBytes()));
+        App.main(new String[0]);
+
+        final String result = getConsoleOutput();
+        assertTrue(result.contains("2 Paragraphs were saved to '" + file + "'."));
+        assertTrue(result.contains("2 Paragraphs were loaded from '" + file + "'."));
+        assertTrue(result.contains("1: Simon" + lineSeparator() + "2: Peter"));
+    }
+
     private String addParagraph(final String paragraphToAdd) {
         return addParagraph(paragraphToAdd, null);
     }
@@ -3,10 +3,13 @@ package textverarbeitung;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
 
 import static java.lang.System.lineSeparator;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -131,6 +134,107 @@ class FormatManagerTest {
         assertEquals(WHITESPACE + lineSeparator(), result);
     }
 
+    @Test
+    void testWriteParagraphsStreamsSameOutput() throws IOException {
+        final List<Paragraph> paragraphs = new ArrayList<>();
+        paragraphs.add(new Paragraph(TEXT_X.repeat(15) + WHITESPACE + TEXT_Y.repeat(30)));
+        paragraphs.add(new Paragraph(TEXT_Y));
+        formatManager.setSelectedFormat(10);
+        final StringWriter writer = new StringWriter();
+        formatManager.writeParagraphsInSelectedFormat(paragraphs, writer);
+        assertEquals(formatManager.transformParagraphsToSelectedFormat(paragraphs), writer.toString());
+
+        formatManager.setDefaultFormat();
+        final StringWriter rawWriter = new StringWriter();
+        formatManager.writeParagraphsInSelectedFormat(paragraphs, rawWriter);
+        assertEquals("1: " + TEXT_X.repeat(15) + WHITESPACE + TEXT_Y.repeat(30) + lineSeparator() + "2: " + TEXT_Y,
+                rawWriter.toString());
+    }
+
+    /**
+     * Prints the same paragraphs repeatedly while replacing one paragraph with a changed copy and changing the column
+     * width in between, so cached line breaks must not be used for a changed paragraph or width.
+     */
+    @Test
+    void testCachedLineBreaksAreInvalidated() {
+        final Paragraph changedParagraph = new Paragraph(TEXT_X.repeat(15) + WHITESPACE + TEXT_Y.repeat(8));
+        final Paragraph unchangedParagraph = new Paragraph(TEXT_Y.repeat(25));
+        List<Paragraph> paragraphs = List.of(changedParagraph, unchangedParagraph);
+        formatManager.setSelectedFormat(20);
+        final String firstResult = formatManager.transformParagraphsToSelectedFormat(paragraphs);
+        assertEquals(firstResult, formatManager.transformParagraphsToSelectedFormat(paragraphs));
+
+        paragraphs = List.of(changedParagraph.withReplacement(new TextMatcher(WHITESPACE), TEXT_X), unchangedParagraph);
+        assertEquals(TEXT_X.repeat(16) + TEXT_Y.repeat(3) + "-" + lineSeparator() + TEXT_Y.repeat(5) + lineSeparator()
+                        + lineSeparator() + TEXT_Y.repeat(19) + "-" + lineSeparator() + TEXT_Y.repeat(6) + lineSeparator(),
+                formatManager.transformParagraphsToSelectedFormat(paragraphs));
+
+        formatManager.setSelectedFormat(30);
+        assertEquals(TEXT_X.repeat(16) + TEXT_Y.repeat(8) + lineSeparator() + lineSeparator() + TEXT_Y.repeat(25)
+                + lineSeparator(), formatManager.transformParagraphsToSelectedFormat(paragraphs));
+    }
+
+    /**
+     * Fills a {@link LineBreakCache} beyond its capacity, which evicts the least recently used entry before the new
+     * one is cached, while the entry of a cached paragraph is only updated.
+     */
+    @Test
+    void testLineBreakCacheEvictsLeastRecentlyUsed() {
+        final LineBreakCache lineBreakCache = new LineBreakCache(2);
+        final Paragraph first = new Paragraph(TEXT_X);
+        final Paragraph second = new Paragraph(TEXT_Y);
+        lineBreakCache.put(first, 10, new int[]{1});
+        lineBreakCache.put(second, 10, new int[]{1});
+        lineBreakCache.put(second, 20, new int[]{2});
+        assertEquals(2, lineBreakCache.size());
+        assertArrayEquals(new int[]{1}, lineBreakCache.get(first, 10));
+
+        final Paragraph third = new Paragraph(TEXT_X);
+        lineBreakCache.put(third, 10, new int[]{3});
+        assertEquals(2, lineBreakCache.size());
+        assertNull(lineBreakCache.get(second, 20));
+        assertArrayEquals(new int[]{1}, lineBreakCache.get(first, 10));
+        assertArrayEquals(new int[]{3}, lineBreakCache.get(third, 10));
+        assertNull(lineBreakCache.get(third, 20));
+    }
+
+    /**
+     * Drops the entry of a paragraph which is no longer referenced anywhere else, once it has been collected.
+     */
+    @Test
+    void testLineBreakCacheDropsCollectedParagraphs() throws InterruptedException {
+        final LineBreakCache lineBreakCache = new LineBreakCache(2);
+        final Paragraph kept = new Paragraph(TEXT_X);
+        lineBreakCache.put(kept, 10, new int[]{1});
+        lineBreakCache.put(new Paragraph(TEXT_Y), 10, new int[]{1});
+
+        for (int attempt = 0; attempt < 50 && lineBreakCache.size() > 1; attempt++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertEquals(1, lineBreakCache.size());
+        assertArrayEquals(new int[]{1}, lineBreakCache.get(kept, 10));
+    }
+
+    /**
+     * Prints several chunks of paragraphs in parallel, twice so the second print uses the cached line breaks, and
+     * compares the output with the sequential one.
+     */
+    @Test
+    void testParallelFixedLengthFormatMatchesSequential() {
+        final List<Paragraph> paragraphs = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            paragraphs.add(new Paragraph(TEXT_X.repeat(i % 37) + WHITESPACE.repeat(i % 3) + TEXT_Y.repeat(i % 23)));
+        }
+        final FormatManager parallelFormatManager = new FormatManager(1);
+        formatManager.setSelectedFormat(7);
+        parallelFormatManager.setSelectedFormat(7);
+
+        final String expected = formatManager.transformParagraphsToSelectedFormat(paragraphs);
+        assertEquals(expected, parallelFormatManager.transformParagraphsToSelectedFormat(paragraphs));
+        assertEquals(expected, parallelFormatManager.transformParagraphsToSelectedFormat(paragraphs));
+    }
+
     @Test
     void testTransformFixedLengthFormatNoParagraphs() {
         formatManager.setSelectedFormat(10);
@@ -4,11 +4,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import static java.lang.System.lineSeparator;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static textverarbeitung.TextConstants.WHITESPACE;
@@ -63,6 +66,159 @@ class IndexManagerTest {
         assertTrue(paragraphPositions.contains(3));
     }
 
+    /**
+     * Testing the incremental maintenance of the index. Paragraphs are added and removed one by one and the index
+     * is only read afterwards. Removing the first paragraph must shift the numbers of the following ones.
+     */
+    @Test
+    void updateIndicesIncrementally() {
+        final Paragraph first = new Paragraph("Lorem ".repeat(4));
+        final Paragraph second = new Paragraph("Ipsum ".repeat(2));
+        final Paragraph third = new Paragraph("Ipsum Lorem ".repeat(2));
+        final ArrayList<Paragraph> paragraphs = new ArrayList<>(List.of(first, second, third));
+        paragraphs.forEach(indexManager::addParagraph);
+
+        indexManager.updateIndices(paragraphs);
+        assertEquals(Set.of(1, 3), indexManager.getIndices().get("Lorem"));
+        assertEquals(Set.of(2, 3), indexManager.getIndices().get("Ipsum"));
+
+        indexManager.removeParagraph(paragraphs.remove(0));
+        indexManager.updateIndices(paragraphs);
+        assertEquals(1, indexManager.getIndices().size());
+        assertEquals(Set.of(1, 2), indexManager.getIndices().get("Ipsum"));
+    }
+
+    /**
+     * Testing that a replaced {@link Paragraph} is reflected in the index after the paragraph has been removed and its
+     * changed copy has been added.
+     */
+    @Test
+    void updateIndicesAfterReplace() {
+        final Paragraph paragraph = new Paragraph("Lorem ".repeat(4));
+        indexManager.addParagraph(paragraph);
+        indexManager.updateIndices(List.of(paragraph));
+
+        final Paragraph replacedParagraph = paragraph.withReplacement(new TextMatcher("Lorem"), "Ipsum");
+        indexManager.removeParagraph(paragraph);
+        indexManager.addParagraph(replacedParagraph);
+        indexManager.updateIndices(List.of(replacedParagraph));
+
+        assertEquals(1, indexManager.getIndices().size());
+        assertEquals(Set.of(1), indexManager.getIndices().get("Ipsum"));
+    }
+
+    /**
+     * Testing that a {@link Paragraph} which is removed before the index has been read is dropped, while the one
+     * which has been indexed already is removed from the index.
+     */
+    @Test
+    void removeParagraphsBeforeReading() {
+        final Paragraph indexed = new Paragraph("Lorem ".repeat(4));
+        final Paragraph pending = new Paragraph("Ipsum ".repeat(4));
+        indexManager.addParagraph(indexed);
+        indexManager.updateIndices(List.of(indexed));
+
+        indexManager.addParagraph(pending);
+        indexManager.removeParagraph(pending);
+        indexManager.removeParagraph(indexed);
+        indexManager.updateIndices(List.of());
+
+        assertTrue(indexManager.getIndices().isEmpty());
+    }
+
+    /**
+     * Testing that pending paragraphs which are removed and added again, also many times over, are indexed exactly once.
+     * The words occur twice in every paragraph, so a paragraph indexed twice would show up in the index.
+     */
+    @Test
+    void addParagraphsAgainBeforeReading() {
+        final List<Paragraph> paragraphs = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            paragraphs.add(new Paragraph(("Word" + i + WHITESPACE).repeat(2)));
+        }
+        paragraphs.forEach(indexManager::addParagraph);
+        for (int round = 0; round < 5; round++) {
+            paragraphs.forEach(indexManager::removeParagraph);
+            paragraphs.forEach(indexManager::addParagraph);
+            paragraphs.forEach(indexManager::addParagraph);
+        }
+        indexManager.updateIndices(paragraphs);
+        assertTrue(indexManager.getIndices().isEmpty());
+
+        final Paragraph paragraph = new Paragraph("Word0 Word1 ".repeat(2));
+        paragraphs.add(paragraph);
+        indexManager.addParagraph(paragraph);
+        indexManager.removeParagraph(paragraphs.get(2));
+        indexManager.addParagraph(paragraphs.get(2));
+        indexManager.updateIndices(paragraphs);
+        assertEquals(Set.of("Word0", "Word1"), indexManager.getIndices().keySet());
+    }
+
+    /**
+     * Testing that the paragraphs pending in one IndexManager are indexed by another one, and that removing them from
+     * the other one does not drop them from the first.
+     */
+    @Test
+    void indexSameParagraphsInSeparateManagers() {
+        final List<Paragraph> paragraphs = List.of(new Paragraph("Lorem ".repeat(4)), new Paragraph("Ipsum ".repeat(4)));
+        final IndexManager otherIndexManager = new IndexManager();
+        indexManager.addParagraphs(paragraphs);
+
+        otherIndexManager.calculateIndices(paragraphs);
+        assertEquals(Set.of("Lorem", "Ipsum"), otherIndexManager.getIndices().keySet());
+
+        otherIndexManager.removeParagraph(paragraphs.get(0));
+        indexManager.updateIndices(paragraphs);
+        assertEquals(Set.of("Lorem", "Ipsum"), indexManager.getIndices().keySet());
+    }
+
+    /**
+     * Testing that the parallel calculation of the index, used from the parallel threshold on, leads to exactly the
+     * same indices as the sequential one. Some words stay below the INDEX_THRESHOLD in every chunk but not in total.
+     */
+    @Test
+    void calculateIndicesInParallel() {
+        final ArrayList<Paragraph> paragraphs = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            paragraphs.add(new Paragraph("Word" + (i % 700) + " Rare" + i + " Common common"));
+        }
+        final IndexManager parallelIndexManager = new IndexManager(1);
+
+        indexManager.calculateIndices(paragraphs);
+        parallelIndexManager.calculateIndices(paragraphs);
+
+        assertEquals(indexManager.getIndices(), parallelIndexManager.getIndices());
+        assertEquals(701, parallelIndexManager.getIndices().size());
+        assertEquals(indexManager.transformIndicesToPrintFormat(), parallelIndexManager.transformIndicesToPrintFormat());
+    }
+
+    /**
+     * Testing that looking up the positions of the paragraphs in the postings of the frequent words numbers them just
+     * like going through all paragraphs, while only those paragraphs are looked up, each of them once.
+     */
+    @Test
+    void lookUpParagraphNumbers() {
+        final ParagraphTree paragraphs = new ParagraphTree();
+        for (int i = 0; i < 1_000; i++) {
+            paragraphs.add(new Paragraph(i % 100 == 0 ? "Lorem Ipsum ".repeat(2) : "Rare" + i));
+        }
+        paragraphs.forEach(indexManager::addParagraph);
+        final Map<String, Paragraph[]> frequentWords = indexManager.collectFrequentWords();
+
+        final List<Paragraph> lookedUpParagraphs = new ArrayList<>();
+        final Map<Paragraph, Integer> paragraphNumbers = IndexManager.lookUpParagraphNumbers(frequentWords,
+                paragraph -> {
+                    lookedUpParagraphs.add(paragraph);
+                    return paragraphs.indexOf(paragraph);
+                });
+        assertEquals(10, lookedUpParagraphs.size());
+        assertEquals(IndexManager.numberParagraphs(frequentWords, paragraphs, new HashMap<>()),
+                IndexManager.numberParagraphs(frequentWords, paragraphNumbers, new HashMap<>()));
+        assertEquals(Set.of(1, 101, 201, 301, 401, 501, 601, 701, 801, 901),
+                IndexManager.numberParagraphs(frequentWords, paragraphNumbers, new HashMap<>()).get("Lorem"));
+        assertNull(IndexManager.lookUpParagraphNumbers(frequentWords, paragraph -> -1));
+    }
+
     /**
      * Negative test of calculation method when null is given instead of a {@link Paragraph} list
      */
@@ -2,6 +2,7 @@ package textverarbeitung;
 
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -36,6 +37,32 @@ public class InputParserTest {
         assertEquals(FORMAT_FIX, inputParser.getMatchingCommand(userInput));
     }
 
+    @Test
+    void testGetMatchingCommandIgnoresCase() {
+        assertEquals(FORMAT_FIX, inputParser.getMatchingCommand(new String[]{"format", "Fix", "10"}));
+        assertEquals(ADD, inputParser.getMatchingCommand(new String[]{"add"}));
+        assertEquals(UNKNOWN, inputParser.getMatchingCommand(new String[]{"FORMAT"}));
+        assertEquals(UNKNOWN, inputParser.getMatchingCommand(new String[]{"FORMATFIX", "10"}));
+        assertEquals(UNKNOWN, inputParser.getMatchingCommand(new String[0]));
+    }
+
+    @Test
+    void testSplitInlinePayloads() {
+        assertArrayEquals(new String[]{"REPLACE 2", "S", "X"}, inputParser.splitInlinePayloads("REPLACE 2 | S |X"));
+        assertArrayEquals(new String[]{"ADD", ""}, inputParser.splitInlinePayloads("ADD |"));
+        assertArrayEquals(new String[]{"PRINT"}, inputParser.splitInlinePayloads("PRINT"));
+    }
+
+    @Test
+    void testSplitInlinePayloadsWithEscapedSeparator() {
+        assertArrayEquals(new String[]{"REGEX REPLACE 1", "foo|bar", "X"},
+                inputParser.splitInlinePayloads("REGEX REPLACE 1 | foo\\|bar | X"));
+        assertArrayEquals(new String[]{"REGEX REPLACE 1", "Nr\\. (\\d+)", "#$1"},
+                inputParser.splitInlinePayloads("REGEX REPLACE 1 | Nr\\. (\\d+) | #$1"));
+        assertArrayEquals(new String[]{"REGEX REPLACE", "a\\\\", "b"},
+                inputParser.splitInlinePayloads("REGEX REPLACE | a\\\\| b"));
+    }
+
     @Test
     void testHasCorrectNumberOfParameters_True() {
         final String[] userInput = new String[2];
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
@@ -53,6 +54,18 @@ public class ParagraphTest {
         assertEquals(2, wordFrequencies.get("FDSA"));
     }
 
+    /**
+     * Tests that special characters within a word are dropped and the remaining characters count as one word.
+     */
+    @Test
+    void testWordFrequenciesWithInnerSpecialCharacters() {
+        paragraph = new Paragraph("Nr.1 Nr1 (Nr)1");
+        final Map<String, Integer> wordFrequencies = paragraph.getParagraphWordFrequencies();
+
+        assertEquals(1, wordFrequencies.size());
+        assertEquals(3, wordFrequencies.get("Nr1"));
+    }
+
     /**
      * Tests that all allowed special characters are not filtered out by the regex.
      */
@@ -64,15 +77,19 @@ public class ParagraphTest {
     }
 
     /**
-     * Tests that a given word will be replaced. It collects the word frequencies afterwards to assert if the
-     * replacement was successful.
+     * Tests that a given word will be replaced in a copy, while the original stays unchanged. It collects the word
+     * frequencies of both afterwards to assert if the replacement was successful.
      */
     @Test
     void testReplace() {
         paragraph = new Paragraph("Asdf, Asdf, Asdf asdf, FDSA ^~^");
-        paragraph.searchReplaceParagraphContent("asdf", "Asdf", 1);
-        final Map<String, Integer> wordFrequencies = paragraph.getParagraphWordFrequencies();
-        assertEquals("Asdf, Asdf, Asdf Asdf, FDSA ", paragraph.getContent());
+        final Paragraph replacedParagraph = paragraph.withReplacement(new TextMatcher("asdf"), "Asdf");
+        assertEquals(3, paragraph.getParagraphWordFrequencies().get("Asdf"));
+        assertNull(paragraph.withReplacement(new TextMatcher("qwer"), "Asdf"));
+
+        final Map<String, Integer> wordFrequencies = replacedParagraph.getParagraphWordFrequencies();
+        assertEquals("Asdf, Asdf, Asdf asdf, FDSA ", paragraph.getContent());
+        assertEquals("Asdf, Asdf, Asdf Asdf, FDSA ", replacedParagraph.getContent());
         assertEquals(2, wordFrequencies.size());
         assertEquals(4, wordFrequencies.get("Asdf"));
         assertEquals(1, wordFrequencies.get("FDSA"));
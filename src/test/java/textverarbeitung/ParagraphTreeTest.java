@@ -0,0 +1,136 @@
+package textverarbeitung;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the {@link ParagraphTree} and its methods
+ */
+class ParagraphTreeTest {
+
+    private ParagraphTree paragraphTree;
+
+    @BeforeEach
+    void setup() {
+        paragraphTree = new ParagraphTree();
+    }
+
+    @Test
+    void testAddGetAndRemove() {
+        final Paragraph first = new Paragraph("first");
+        final Paragraph second = new Paragraph("second");
+        final Paragraph third = new Paragraph("third");
+        paragraphTree.add(first);
+        paragraphTree.add(0, second);
+        paragraphTree.add(1, third);
+
+        assertEquals(List.of(second, third, first), paragraphTree);
+        assertSame(third, paragraphTree.remove(1));
+        assertEquals(List.of(second, first), paragraphTree);
+        assertSame(second, paragraphTree.set(0, third));
+        assertEquals(List.of(third, first), paragraphTree);
+    }
+
+    /**
+     * Applies the same random sequence of insertions, removals and bulk insertions to a {@link ParagraphTree} and an
+     * {@link ArrayList} and checks that both always contain the same paragraphs in the same order.
+     */
+    @Test
+    void testBehavesLikeArrayList() {
+        final List<Paragraph> expected = new ArrayList<>();
+        final Random random = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            final int operation = random.nextInt(10);
+            if (operation < 5 || expected.isEmpty()) {
+                final int index = random.nextInt(expected.size() + 1);
+                final Paragraph paragraph = new Paragraph("Paragraph " + i);
+                expected.add(index, paragraph);
+                paragraphTree.add(index, paragraph);
+            } else if (operation < 9) {
+                final int index = random.nextInt(expected.size());
+                assertSame(expected.remove(index), paragraphTree.remove(index));
+            } else {
+                final int index = random.nextInt(expected.size() + 1);
+                final List<Paragraph> bulk = List.of(new Paragraph("Bulk " + i), new Paragraph("Bulk " + i));
+                expected.addAll(index, bulk);
+                paragraphTree.addAll(index, bulk);
+            }
+            assertEquals(expected.size(), paragraphTree.size());
+        }
+        assertEquals(expected, paragraphTree);
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), paragraphTree.get(i));
+        }
+    }
+
+    @Test
+    void testSnapshotStaysUnchanged() {
+        final Paragraph first = new Paragraph("first");
+        final Paragraph second = new Paragraph("second");
+        paragraphTree.addAll(List.of(first, second));
+        final ParagraphTree snapshot = paragraphTree.snapshot();
+
+        paragraphTree.set(0, new Paragraph("changed"));
+        paragraphTree.remove(1);
+        paragraphTree.add(new Paragraph("third"));
+
+        assertEquals(List.of(first, second), snapshot);
+        assertEquals(2, paragraphTree.size());
+        assertEquals("changed", paragraphTree.get(0).getContent());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(first));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.set(0, first));
+    }
+
+    @Test
+    void testIndexOf() {
+        final List<Paragraph> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            expected.add(new Paragraph("Paragraph " + i));
+        }
+        paragraphTree.addAll(expected);
+        final Paragraph removed = paragraphTree.remove(50);
+        expected.remove(50);
+        final Paragraph replaced = paragraphTree.set(100, new Paragraph("replaced"));
+        expected.set(100, paragraphTree.get(100));
+        final ParagraphTree snapshot = paragraphTree.snapshot();
+        paragraphTree.add(0, new Paragraph("first"));
+        expected.add(0, paragraphTree.get(0));
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(i, paragraphTree.indexOf(expected.get(i)));
+        }
+        assertEquals(-1, paragraphTree.indexOf(removed));
+        assertEquals(-1, paragraphTree.indexOf(replaced));
+        assertEquals(-1, paragraphTree.indexOf(new Paragraph("Paragraph 1")));
+        assertEquals(99, snapshot.indexOf(expected.get(100)));
+    }
+
+    @Test
+    void testInvalidIndex() {
+        assertThrows(IndexOutOfBoundsException.class, () -> paragraphTree.get(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> paragraphTree.add(1, new Paragraph("x")));
+        assertThrows(IndexOutOfBoundsException.class, () -> paragraphTree.remove(-1));
+    }
+
+    @Test
+    void testIteratorFailsOnModification() {
+        paragraphTree.add(new Paragraph("x"));
+        paragraphTree.add(new Paragraph("y"));
+        final Iterator<Paragraph> iterator = paragraphTree.iterator();
+        assertTrue(iterator.hasNext());
+        paragraphTree.remove(0);
+        assertThrows(ConcurrentModificationException.class, iterator::next);
+    }
+
+}
@@ -0,0 +1,45 @@
+package textverarbeitung;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests the {@link PatternCache} and its methods
+ */
+class PatternCacheTest {
+
+    private final PatternCache patternCache = new PatternCache(2);
+
+    @Test
+    void testReturnsCachedPattern() {
+        final Pattern pattern = patternCache.get("a+b");
+        assertEquals("a+b", pattern.pattern());
+        assertSame(pattern, patternCache.get("a+b"));
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedPattern() {
+        final Pattern first = patternCache.get("first");
+        final Pattern second = patternCache.get("second");
+        patternCache.get("first");
+        patternCache.get("third");
+
+        assertEquals(2, patternCache.size());
+        assertSame(first, patternCache.get("first"));
+        assertNotSame(second, patternCache.get("second"));
+    }
+
+    @Test
+    void testInvalidExpressionIsNotCached() {
+        assertThrows(PatternSyntaxException.class, () -> patternCache.get("(a"));
+        assertEquals(0, patternCache.size());
+    }
+
+}
@@ -0,0 +1,130 @@
+package textverarbeitung;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.lang.System.lineSeparator;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests the {@link PersistenceManager} and its methods
+ */
+class PersistenceManagerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final PersistenceManager persistenceManager = new PersistenceManager();
+
+    @Test
+    void testSaveAndLoad() throws IOException {
+        final Path file = tempDir.resolve("document.txt");
+        final List<Paragraph> paragraphs = List.of(new Paragraph("Äpfel und Öl’s"), new Paragraph(""),
+                new Paragraph("Last (one)."));
+        persistenceManager.save(file, paragraphs);
+
+        assertEquals("Äpfel und Öl’s" + lineSeparator() + lineSeparator() + "Last (one)." + lineSeparator(),
+                Files.readString(file, StandardCharsets.UTF_8));
+        assertEquals(List.of("Äpfel und Öl’s", "", "Last (one)."), load(persistenceManager, file));
+    }
+
+    @Test
+    void testSaveOverwritesLongerFile() throws IOException {
+        final Path file = tempDir.resolve("document.txt");
+        Files.writeString(file, "x".repeat(100));
+        persistenceManager.save(file, List.of(new Paragraph("y")));
+
+        assertEquals("y" + lineSeparator(), Files.readString(file));
+    }
+
+    @Test
+    void testLoadLineSeparators() throws IOException {
+        final Path file = tempDir.resolve("document.txt");
+        Files.writeString(file, "first\r\nsecond\n\nlast");
+
+        assertEquals(List.of("first", "second", "", "last"), load(persistenceManager, file));
+    }
+
+    @Test
+    void testLoadEmptyFile() throws IOException {
+        final Path file = tempDir.resolve("document.txt");
+        Files.writeString(file, "");
+
+        assertEquals(List.of(), load(persistenceManager, file));
+    }
+
+    /**
+     * Uses a tiny buffer, so lines and multibyte characters span several blocks, also when they are forced.
+     */
+    @Test
+    void testSaveAndLoadAcrossBlocks() throws IOException {
+        final PersistenceManager windowedPersistenceManager = new PersistenceManager(16, 64);
+        final Path file = tempDir.resolve("document.txt");
+        final List<Paragraph> paragraphs = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            paragraphs.add(new Paragraph("ä’".repeat(i % 3) + i));
+        }
+        windowedPersistenceManager.save(file, paragraphs);
+
+        final List<String> expectedLines = new ArrayList<>();
+        paragraphs.forEach(paragraph -> expectedLines.add(paragraph.getContent()));
+        assertEquals(expectedLines, Files.readAllLines(file, StandardCharsets.UTF_8));
+        assertEquals(expectedLines, load(windowedPersistenceManager, file));
+
+        // Forcing the file to the disk writes the same file
+        final Path durableFile = tempDir.resolve("durable.txt");
+        windowedPersistenceManager.save(durableFile, paragraphs, true);
+        assertEquals(Files.readAllLines(file, StandardCharsets.UTF_8),
+                Files.readAllLines(durableFile, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testLoadLineLongerThanBuffer() throws IOException {
+        final Path file = tempDir.resolve("document.txt");
+        Files.writeString(file, "x".repeat(20) + "\r\n" + "y".repeat(20));
+
+        assertEquals(List.of("x".repeat(20), "y".repeat(20)), load(new PersistenceManager(8, 24), file));
+    }
+
+    @Test
+    void testLoadLineLongerThanMaxLineLength() throws IOException {
+        final Path file = tempDir.resolve("document.txt");
+        Files.writeString(file, "x".repeat(20) + lineSeparator() + "y");
+
+        assertThrows(IOException.class, () -> load(new PersistenceManager(8, 8), file));
+    }
+
+    /**
+     * Saving over the file just loaded requires that no part of it is still held, e.g. by a memory mapping.
+     */
+    @Test
+    void testSaveOverLoadedFile() throws IOException {
+        final Path file = tempDir.resolve("document.txt");
+        Files.writeString(file, "first" + lineSeparator() + "second" + lineSeparator());
+        load(persistenceManager, file);
+        persistenceManager.save(file, List.of(new Paragraph("third")));
+
+        assertEquals(List.of("third"), load(persistenceManager, file));
+    }
+
+    @Test
+    void testLoadMissingFile() {
+        assertThrows(IOException.class, () -> load(persistenceManager, tempDir.resolve("missing.txt")));
+    }
+
+    private static List<String> load(final PersistenceManager persistenceManager, final Path file) throws IOException {
+        final List<String> lines = new ArrayList<>();
+        final int lineCount = persistenceManager.load(file, lines::add);
+        assertEquals(lines.size(), lineCount);
+        return lines;
+    }
+
+}
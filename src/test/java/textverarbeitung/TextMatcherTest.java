@@ -0,0 +1,72 @@
+package textverarbeitung;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests the {@link TextMatcher} and its methods
+ */
+class TextMatcherTest {
+
+    private static final String ALPHABET = "ab’ c";
+
+    @Test
+    void testReplaceIn() {
+        final String pattern = "Lorem ipsum dolor sit amet, consectetur";
+        final TextMatcher matcher = new TextMatcher(pattern);
+        final TextMatcher.Replacement replacement = matcher.replaceIn(pattern + " sit, " + pattern + pattern, "X");
+
+        assertEquals("X sit, XX", replacement.getText());
+        assertEquals(3, replacement.getCount());
+        assertNull(matcher.replaceIn("Lorem ipsum dolor sit amet, consectetuR", "X"));
+        assertThrows(IllegalArgumentException.class, () -> new TextMatcher(TextConstants.BLANK));
+    }
+
+    /**
+     * Compares short patterns, which are found with {@link String#indexOf(String)}, and long patterns, which are found
+     * with the skip table, with {@link String#indexOf(String, int)} and {@link String#replace} on random texts of a
+     * small alphabet, which have many partial matches and a character beyond Latin-1.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 32, 45})
+    void testBehavesLikeString(final int patternLength) {
+        final Random random = new Random(patternLength);
+        for (int i = 0; i < 500; i++) {
+            final String pattern = randomText(random, patternLength);
+            // Most texts contain the pattern, some of them more than once
+            String text = randomText(random, random.nextInt(100));
+            while (random.nextInt(3) > 0) {
+                text += pattern + randomText(random, random.nextInt(patternLength + 2));
+            }
+            final TextMatcher matcher = new TextMatcher(pattern);
+
+            for (int fromIndex = 0; fromIndex <= text.length(); fromIndex += 7) {
+                assertEquals(text.indexOf(pattern, fromIndex), matcher.indexIn(text, fromIndex));
+            }
+            final TextMatcher.Replacement replacement = matcher.replaceIn(text, "XY");
+            if (text.contains(pattern)) {
+                assertEquals(text.replace(pattern, "XY"), replacement.getText());
+                assertEquals(replacement.getText().length() - text.length(),
+                        replacement.getCount() * (2 - patternLength));
+            } else {
+                assertNull(replacement);
+            }
+        }
+    }
+
+    private static String randomText(final Random random, final int length) {
+        final StringBuilder stringBuilder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            stringBuilder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return stringBuilder.toString();
+    }
+
+}
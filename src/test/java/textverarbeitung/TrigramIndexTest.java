@@ -0,0 +1,50 @@
+package textverarbeitung;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the {@link TrigramIndex} and its methods
+ */
+class TrigramIndexTest {
+
+    private final TrigramIndex trigramIndex = new TrigramIndex();
+
+    @Test
+    void testFindCandidates() {
+        final Paragraph lorem = new Paragraph("Lorem ipsum dolor");
+        final Paragraph ipsum = new Paragraph("Ipsum lorem");
+        final Paragraph other = new Paragraph("Something else");
+        trigramIndex.addParagraph(lorem);
+        trigramIndex.addParagraph(ipsum);
+        trigramIndex.addParagraph(other);
+
+        assertEquals(Set.of(lorem, ipsum), trigramIndex.findCandidates("orem"));
+        assertEquals(Set.of(lorem), trigramIndex.findCandidates("m dol"));
+        assertTrue(trigramIndex.findCandidates("xyz").isEmpty());
+        assertNull(trigramIndex.findCandidates("or"));
+
+        trigramIndex.removeParagraph(lorem);
+        assertEquals(Set.of(ipsum), trigramIndex.findCandidates("orem"));
+    }
+
+    @Test
+    void testCompactionKeepsIndexedParagraphs() {
+        final Paragraph kept = new Paragraph("Kept paragraph");
+        trigramIndex.addParagraph(kept);
+        for (int i = 0; i < 5000; i++) {
+            final Paragraph removed = new Paragraph("Removed paragraph " + i);
+            trigramIndex.addParagraph(removed);
+            trigramIndex.removeParagraph(removed);
+        }
+
+        assertEquals(1, trigramIndex.size());
+        assertEquals(Set.of(kept), trigramIndex.findCandidates("paragraph"));
+    }
+
+}
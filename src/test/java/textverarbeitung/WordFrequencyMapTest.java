@@ -0,0 +1,110 @@
+package textverarbeitung;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the {@link WordFrequencyMap}, the {@link ParagraphNumberSet} and the postings of the {@link WordOccurrences}
+ */
+class WordFrequencyMapTest {
+
+    /**
+     * Counts enough distinct words to grow the table several times and compares the result with a {@link HashMap}.
+     */
+    @Test
+    void testCountsLikeHashMap() {
+        final WordFrequencyMap wordFrequencies = new WordFrequencyMap();
+        final Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 1_000; i++) {
+            final String word = "Word" + (i % 300);
+            wordFrequencies.increment(word);
+            expected.merge(word, 1, Integer::sum);
+        }
+
+        assertEquals(expected, wordFrequencies);
+        assertEquals(expected.hashCode(), wordFrequencies.hashCode());
+        assertEquals(4, wordFrequencies.getCount("Word0"));
+        assertNull(wordFrequencies.get("Word300"));
+        assertFalse(wordFrequencies.containsKey(42));
+
+        final Map<String, Integer> visited = new HashMap<>();
+        wordFrequencies.forEachCount(visited::put);
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    void testClearAndReadOnly() {
+        final WordFrequencyMap wordFrequencies = new WordFrequencyMap();
+        assertTrue(wordFrequencies.isEmpty());
+        wordFrequencies.increment("Asdf");
+
+        assertThrows(UnsupportedOperationException.class, wordFrequencies::clear);
+        assertThrows(UnsupportedOperationException.class, () -> wordFrequencies.put("Asdf", 1));
+        assertThrows(UnsupportedOperationException.class, () -> wordFrequencies.remove("Asdf"));
+        assertEquals(1, wordFrequencies.getCount("Asdf"));
+    }
+
+    @Test
+    void testParagraphNumberSet() {
+        final ParagraphNumberSet numbers = new ParagraphNumberSet(2);
+        for (int number : List.of(7, 3, 9, 3, 1)) {
+            numbers.append(number);
+        }
+        numbers.sort();
+        assertTrue(numbers.add(5));
+        assertFalse(numbers.add(9));
+
+        assertEquals(Set.of(1, 3, 5, 7, 9), numbers);
+        assertEquals(List.of(1, 3, 5, 7, 9), List.copyOf(numbers));
+        assertFalse(numbers.contains(2));
+    }
+
+    /**
+     * Adds and removes paragraphs at random, so the postings grow beyond the linear array into the hash table and
+     * shrink again, and compares them with an identity set after every step.
+     */
+    @Test
+    void testWordOccurrencesLikeIdentitySet() {
+        final Random random = new Random(42);
+        final Paragraph[] paragraphs = new Paragraph[40];
+        for (int i = 0; i < paragraphs.length; i++) {
+            paragraphs[i] = new Paragraph("Asdf");
+        }
+        final WordOccurrences occurrences = new WordOccurrences();
+        final Set<Paragraph> expected = Collections.newSetFromMap(new IdentityHashMap<>());
+        int expectedFrequency = 0;
+        for (int i = 0; i < 2_000; i++) {
+            final Paragraph paragraph = paragraphs[random.nextInt(i < 1_000 ? paragraphs.length : 12)];
+            if (random.nextInt(3) > 0) {
+                if (expected.add(paragraph)) {
+                    occurrences.add(paragraph, 2);
+                    expectedFrequency += 2;
+                }
+            } else if (expected.remove(paragraph)) {
+                occurrences.remove(paragraph, 2);
+                expectedFrequency -= 2;
+            }
+
+            final Set<Paragraph> actual = Collections.newSetFromMap(new IdentityHashMap<>());
+            Collections.addAll(actual, occurrences.getParagraphs());
+            assertEquals(expected, actual);
+            assertEquals(expected.size(), occurrences.getParagraphs().length);
+            assertEquals(expectedFrequency, occurrences.getTotalFrequency());
+            assertEquals(expected.isEmpty(), occurrences.isEmpty());
+        }
+    }
+
+}
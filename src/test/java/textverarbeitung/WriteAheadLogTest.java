@@ -0,0 +1,85 @@
+package textverarbeitung;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the {@link WriteAheadLog} and its methods
+ */
+class WriteAheadLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final List<Paragraph> snapshot = new ArrayList<>();
+    private final List<String[]> records = new ArrayList<>();
+
+    @Test
+    void testRecoverAppendedRecords() throws IOException {
+        try (WriteAheadLog writeAheadLog = new WriteAheadLog(tempDir, new PersistenceManager())) {
+            assertEquals(0, recover(writeAheadLog));
+            writeAheadLog.append("ADD", null, "Tab\tand \\ backslash");
+            writeAheadLog.append("DEL", "1");
+        }
+        // A record torn by a crash is not terminated and must be skipped
+        try (Stream<Path> files = Files.list(tempDir)) {
+            final Path log = files.findFirst().orElseThrow();
+            Files.writeString(log, "REPLACE\t1\tAs", StandardOpenOption.APPEND);
+        }
+
+        try (WriteAheadLog writeAheadLog = new WriteAheadLog(tempDir, new PersistenceManager())) {
+            assertEquals(2, recover(writeAheadLog));
+        }
+        assertTrue(snapshot.isEmpty());
+        assertArrayEquals(new String[]{"ADD", "", "Tab\tand \\ backslash"}, records.get(0));
+        assertArrayEquals(new String[]{"DEL", "1"}, records.get(1));
+    }
+
+    @Test
+    void testCheckpointReplacesOlderLogs() throws IOException {
+        try (WriteAheadLog writeAheadLog = new WriteAheadLog(tempDir, new PersistenceManager(), 2)) {
+            recover(writeAheadLog);
+            writeAheadLog.append("ADD", null, "Before");
+            assertFalse(writeAheadLog.isCheckpointDue(1));
+            writeAheadLog.append("ADD", null, "Snapshot");
+            assertTrue(writeAheadLog.isCheckpointDue(2));
+            assertFalse(writeAheadLog.isCheckpointDue(3));
+
+            writeAheadLog.checkpoint(List.of(new Paragraph("Before"), new Paragraph("Snapshot")),
+                    List.<String[]>of(new String[]{"FORMAT_FIX", "20"}));
+            assertFalse(writeAheadLog.isCheckpointDue(2));
+            writeAheadLog.append("DEL", "1");
+        }
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(List.of("log-2.txt", "snapshot-2.txt"),
+                    files.map(file -> file.getFileName().toString()).sorted().toList());
+        }
+
+        try (WriteAheadLog writeAheadLog = new WriteAheadLog(tempDir, new PersistenceManager())) {
+            assertEquals(2, recover(writeAheadLog));
+        }
+        assertEquals(List.of("Before", "Snapshot"), snapshot.stream().map(Paragraph::getContent).toList());
+        assertArrayEquals(new String[]{"FORMAT_FIX", "20"}, records.get(0));
+        assertArrayEquals(new String[]{"DEL", "1"}, records.get(1));
+    }
+
+    private int recover(final WriteAheadLog writeAheadLog) throws IOException {
+        snapshot.clear();
+        records.clear();
+        return writeAheadLog.recover(snapshot::addAll, records::add);
+    }
+
+}